@@ -0,0 +1,105 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.util.WorldRandom;
+import pepse.world.Terrain;
+import pepse.world.WorldClock;
+import pepse.world.trees.Flora;
+import pepse.world.trees.RespawnScheduler;
+import pepse.world.trees.Tree;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the flora across several world widths, and the construction of a
+ * single tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloraBenchmark {
+
+    /**
+     * The dimensions of the game window the world is generated for. It is a constant
+     * (static final).
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+
+    /**
+     * The seed of the generated world. It is a constant (static final).
+     */
+    private static final int SEED = 1234;
+
+    /**
+     * The duration of a day-night cycle in seconds. It is a constant (static final).
+     */
+    private static final float DAY_TIME_CYCLE = 30;
+
+    /**
+     * The bottom of the stump of the constructed tree, on the ground. It is a constant
+     * (static final).
+     */
+    private static final Vector2 STUMP_BOTTOM = new Vector2(0, 480);
+
+    /**
+     * The salt of the random generators of the constructed trees. It is a constant
+     * (static final).
+     */
+    private static final long TREE_SALT = 0x7EE;
+
+    /**
+     * The width of the generated world, in pixels.
+     */
+    @Param({"1280", "5120", "20480"})
+    public int worldWidth;
+
+    private Flora flora;
+    private RespawnScheduler respawnScheduler;
+    private int treeIndex;
+
+    /**
+     * Creates the flora of a terrain.
+     */
+    @Setup
+    public void setUp() {
+        Terrain terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        this.respawnScheduler = new RespawnScheduler(new WorldClock(DAY_TIME_CYCLE));
+        this.flora = new Flora(SEED, DAY_TIME_CYCLE, terrain::groundHeightAt, respawnScheduler,
+                energy -> {});
+    }
+
+    /**
+     * Creates the trees of the world.
+     * @return The trees.
+     */
+    @Benchmark
+    public ArrayList<Tree> createInRange() {
+        return flora.createInRange(0, worldWidth);
+    }
+
+    /**
+     * Constructs a single tree, with its stump, leaves and fruits, from a different generator
+     * every time.
+     * @return The tree.
+     */
+    @Benchmark
+    public Tree constructTree() {
+        return new Tree(DAY_TIME_CYCLE, STUMP_BOTTOM, WorldRandom.at(SEED, TREE_SALT, treeIndex++),
+                respawnScheduler, energy -> {});
+    }
+}
@@ -0,0 +1,94 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.util.NoiseGenerator;
+import pepse.world.Block;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the noise the terrain's height is sampled from, a block column at a time and a whole
+ * world's width of columns in a batch, with each kernel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+
+    /**
+     * The seed of the sampled generator. It is a constant (static final).
+     */
+    private static final int SEED = 1234;
+
+    /**
+     * The start point of the sampled generator, the terrain's ground height at x=0.
+     * It is a constant (static final).
+     */
+    private static final int START_POINT = 480;
+
+    /**
+     * The factor the noise is sampled with, as used by the terrain. It is a constant
+     * (static final).
+     */
+    private static final double FACTOR = Block.SIZE * 7;
+
+    /**
+     * The width of the sampled world, in pixels.
+     */
+    @Param({"1280", "5120", "20480"})
+    public int worldWidth;
+
+    /**
+     * The kernel every octave is sampled with.
+     */
+    @Param({"PERLIN_3D", "PERLIN_1D"})
+    public NoiseGenerator.Kernel kernel;
+
+    private NoiseGenerator generator;
+    private double[] heights;
+
+    /**
+     * Creates the generator and the array the batched noise is written to.
+     */
+    @Setup
+    public void setUp() {
+        this.generator = new NoiseGenerator(SEED, START_POINT, kernel);
+        this.heights = new double[worldWidth / Block.SIZE];
+    }
+
+    /**
+     * Samples the noise of every block column of the world, one call per column.
+     * @return The sum of the noise, so that it is not optimized away.
+     */
+    @Benchmark
+    public double noise() {
+        double sum = 0;
+        for (int x = 0; x < worldWidth; x += Block.SIZE) {
+            sum += generator.noise(x, FACTOR);
+        }
+        return sum;
+    }
+
+    /**
+     * Samples the noise of every block column of the world in a single batch.
+     * @return The batched noise.
+     */
+    @Benchmark
+    public double[] noiseRange() {
+        generator.noiseRange(0, Block.SIZE, heights.length, FACTOR, heights);
+        return heights;
+    }
+}
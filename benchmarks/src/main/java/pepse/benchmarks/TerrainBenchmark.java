@@ -0,0 +1,115 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pepse.world.Block;
+import pepse.world.ChunkManager;
+import pepse.world.Terrain;
+import pepse.world.TerrainTiles;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the terrain across several world widths: its ground height, with
+ * and without the per-chunk height cache, its blocks and its tile map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerrainBenchmark {
+
+    /**
+     * The dimensions of the game window the terrain is generated for. It is a constant
+     * (static final).
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+
+    /**
+     * The seed of the generated terrain. It is a constant (static final).
+     */
+    private static final int SEED = 1234;
+
+    /**
+     * The width of the generated world, in pixels.
+     */
+    @Param({"1280", "5120", "20480"})
+    public int worldWidth;
+
+    private Terrain terrain;
+    private Terrain cachedTerrain;
+
+    /**
+     * Creates a terrain, and another one whose height maps of the whole world are cached.
+     */
+    @Setup
+    public void setUp() {
+        this.terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        this.cachedTerrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        for (int chunk = 0; chunk * ChunkManager.CHUNK_WIDTH < worldWidth; chunk++) {
+            cachedTerrain.cacheHeightMap(chunk);
+        }
+    }
+
+    /**
+     * Samples the ground height of every block column of the world from the noise.
+     * @return The sum of the heights, so that it is not optimized away.
+     */
+    @Benchmark
+    public float groundHeightAt() {
+        return sumGroundHeights(terrain);
+    }
+
+    /**
+     * Samples the ground height of every block column of the world from the height cache.
+     * @return The sum of the heights, so that it is not optimized away.
+     */
+    @Benchmark
+    public float groundHeightAtCached() {
+        return sumGroundHeights(cachedTerrain);
+    }
+
+    /**
+     * Creates a block for every ground tile of the world.
+     * @return The blocks.
+     */
+    @Benchmark
+    public List<Block> createInRange() {
+        return terrain.createInRange(0, worldWidth);
+    }
+
+    /**
+     * Creates the tile map of the world.
+     * @return The tile map.
+     */
+    @Benchmark
+    public TerrainTiles createTilesInRange() {
+        return terrain.createTilesInRange(0, worldWidth);
+    }
+
+    /*
+     * Sums the ground height of every block column of the world.
+     * @param terrain The terrain to sample.
+     * @return        The sum of the heights.
+     */
+    private float sumGroundHeights(Terrain terrain) {
+        float sum = 0;
+        for (int x = 0; x < worldWidth; x += Block.SIZE) {
+            sum += terrain.groundHeightAt(x);
+        }
+        return sum;
+    }
+}
@@ -1,24 +1,40 @@
 package pepse;
 import danogl.GameManager;
 import danogl.GameObject;
-import danogl.collisions.Layer;
 import danogl.gui.ImageReader;
 import danogl.gui.SoundReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
+import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
 import pepse.userinterface.UiEnergy;
+import pepse.userinterface.UiFrameProfiler;
+import pepse.util.FrameProfiler;
+import pepse.util.jfr.FrameUpdateEvent;
 import pepse.world.*;
+import pepse.world.daynight.DayNight;
 import pepse.world.daynight.Night;
+import pepse.world.daynight.SkyLut;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
 import pepse.world.trees.Flora;
-import pepse.world.trees.OnJumpObserver;
-import pepse.world.trees.Tree;
+import pepse.world.trees.FloraStreamer;
+import pepse.world.trees.FoliageSystem;
+import pepse.world.trees.JumpObserverRegistry;
+import pepse.world.trees.RespawnScheduler;
 
-import java.util.ArrayList;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Manages the game logic for Pepse, a 2D platformer game.
@@ -35,11 +51,135 @@ public class PepseGameManager extends GameManager{
     private static final int START_X = 0;
 
     /**
-     * Entry point for the game. Instantiates and runs the game manager.
-     * @param args Command-line arguments (unused).
+     * The name prefix of the temporary directory of a world that is not saved. It is a constant
+     * (static final).
+     */
+    private static final String UNSAVED_WORLD_PREFIX = "pepse-world";
+
+    /**
+     * The real time between two stores of the loaded chunks' eaten fruits of a saved world, in
+     * seconds, whatever the time scale. It is a constant (static final).
+     */
+    private static final float AUTOSAVE_INTERVAL = 5;
+
+    /**
+     * The key that shows and hides the frame profiler overlay. It is a constant (static final).
+     */
+    private static final int PROFILER_OVERLAY_KEY = KeyEvent.VK_F3;
+
+    /**
+     * The key that starts and stops recording the frame profiler to a CSV file.
+     * It is a constant (static final).
+     */
+    private static final int PROFILER_RECORDING_KEY = KeyEvent.VK_F4;
+
+    /**
+     * The CSV file the frame profiler records to. It is a constant (static final).
+     */
+    private static final String PROFILER_CSV_FILE = "pepse-profile.csv";
+
+    /**
+     * The number of nanoseconds in a second. It is a constant (static final).
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The system property that sets how fast game time runs relative to real time, such as to
+     * fast-forward the day-night cycle for testing. It is a constant (static final).
+     */
+    private static final String TIME_SCALE_PROPERTY = "pepse.timeScale";
+
+    /**
+     * The time scale used when the time scale system property is not set. It is a constant
+     * (static final).
+     */
+    private static final String DEFAULT_TIME_SCALE = "1";
+
+    /**
+     * The system property that sets the seed of a new world, such as to replay the same world.
+     * It is a constant (static final).
+     */
+    private static final String SEED_PROPERTY = "pepse.seed";
+
+    /**
+     * The system property that sets how the sky is painted, FLAT or GRADIENT. It is a constant
+     * (static final).
+     */
+    private static final String SKY_STYLE_PROPERTY = "pepse.skyStyle";
+
+    /**
+     * The sky style used when the sky style system property is not set. It is a constant
+     * (static final).
+     */
+    private static final String DEFAULT_SKY_STYLE = "FLAT";
+
+    /**
+     * The fixed time step of a single simulation tick, in seconds. It is a constant
+     * (static final).
+     */
+    private static final float SIMULATION_STEP = 1f / 60;
+
+    /**
+     * The maximal number of simulation ticks run in a single frame, beyond which the time left
+     * behind is dropped, so that a slow frame cannot snowball into ever slower ones. It is a
+     * constant (static final).
+     */
+    private static final int MAX_STEPS_PER_FRAME = 5;
+
+    private final Map<Integer, Integer> objectsPerLayer = new HashMap<>();
+    private final Path worldDirectory;
+    private StaticColliderGrid staticColliders;
+    private List<GameObject> movingObjects;
+    private Avatar avatar;
+    private Vector2 previousAvatarCorner;
+    private Vector2 simulatedAvatarCorner;
+    private float unsimulatedTime;
+    private long stepsPerFrame;
+    private ChunkManager chunkManager;
+    private FoliageSystem foliageSystem;
+    private RespawnScheduler respawnScheduler;
+    private WorldClock worldClock;
+    private DayNight dayNight;
+    private RegionStore regionStore;
+    private FloraStreamer floraStreamer;
+    private float timeSinceAutosave;
+    private UserInputListener inputListener;
+    private FrameProfiler frameProfiler;
+    private boolean profilerOverlayVisible;
+    private boolean overlayKeyWasPressed;
+    private boolean recordingKeyWasPressed;
+    private long estimatedCollisionPairs;
+
+    /**
+     * Constructs a game manager of a new world, with a random seed unless the seed system
+     * property sets one, that is not saved: its region files are kept in a temporary directory,
+     * which is deleted when the world is closed.
+     */
+    public PepseGameManager() {
+        this(null);
+    }
+
+    /**
+     * Constructs a game manager of the world saved in the given directory, or of a new world
+     * saved there if the directory holds none. The loaded chunks are stored every now and then,
+     * and when the world is closed.
+     * @param worldDirectory The directory of the saved world, or null for a world that is not
+     *                       saved.
+     */
+    public PepseGameManager(Path worldDirectory) {
+        this.worldDirectory = worldDirectory;
+    }
+
+    /**
+     * Entry point for the game. Instantiates and runs the game manager, and closes its world once
+     * the game's window is closed.
+     * @param args Optionally, the directory of the world to load or create. Without it, a new
+     *             world is played and not saved.
      */
     public static void main(String[] args) {
-        new PepseGameManager().run();
+        PepseGameManager game = new PepseGameManager(args.length > 0 ? Paths.get(args[0]) : null);
+        game.run();
+        game.closeWorld();
     }
 
     /**
@@ -55,77 +195,312 @@ public class PepseGameManager extends GameManager{
                                WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         Vector2 windowDimensions = windowController.getWindowDimensions();
+        GameLayers.applyCollisionMatrix(gameObjects().layers()::shouldLayersCollide);
+        this.staticColliders = new StaticColliderGrid(GameLayers.STATIC_IDLE, GameLayers.GROUND,
+                this::addToGame, this::removeFromGame);
 
         GameObject sky = Sky.create(windowDimensions);
-        gameObjects().addGameObject(sky, Layer.BACKGROUND);
+        addObject(sky, GameLayers.SKY);
 
-        createSun(windowDimensions);
+        createDayNight(sky, windowDimensions);
 
         Terrain terrain = createTerrain(windowDimensions);
 
-        GameObject night = Night.create(windowDimensions,DAY_TIME_CYCLE);
-        gameObjects().addGameObject(night,Layer.FOREGROUND);
-
-        Avatar avatar = new Avatar(Vector2.ZERO,inputListener,imageReader);
+        this.avatar = new Avatar(Vector2.ZERO,inputListener,imageReader);
         createFlora(terrain, avatar, windowDimensions);
-        gameObjects().addGameObject(avatar, Layer.DEFAULT);
+        addObject(avatar, GameLayers.AVATAR);
+        this.movingObjects = List.of(avatar);
+        setCamera(new Camera(avatar, Vector2.ZERO, windowDimensions, windowDimensions));
+        chunkManager.update(START_X);
+        this.previousAvatarCorner = avatar.getTopLeftCorner();
+        this.simulatedAvatarCorner = previousAvatarCorner;
 
         GameObject uiEnergy = UiEnergy.create(avatar::getEnergy);
-        gameObjects().addGameObject(uiEnergy, Layer.UI);
+        addObject(uiEnergy, GameLayers.UI);
+
+        this.inputListener = inputListener;
+        this.frameProfiler = new FrameProfiler(this::getCounters);
+        for (GameObject line : UiFrameProfiler.create(frameProfiler, this::getCounters,
+                () -> profilerOverlayVisible)) {
+            addObject(line, GameLayers.UI);
+        }
+    }
+
+    /**
+     * Updates the game. The simulation, that is the avatar, its energy, the collisions, the world
+     * clock and the fruit respawns derived from it, runs on fixed ticks of SIMULATION_STEP, as
+     * many as the frame's time accumulates to and at most MAX_STEPS_PER_FRAME of them, so that it
+     * behaves and costs the same at any frame rate. The avatar is then rendered at a position
+     * interpolated between its last two ticks, and the camera follows it there. Once per frame,
+     * the day-night cycle is derived from the clock, terrain chunks are streamed around the
+     * camera, the foliage is animated and, in a saved world, every AUTOSAVE_INTERVAL real seconds
+     * the loaded chunks' eaten fruits are stored. The whole update is measured by the frame
+     * profiler.
+     * @param deltaTime The time elapsed since the last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        FrameUpdateEvent event = new FrameUpdateEvent();
+        event.begin();
+        frameProfiler.beginUpdate();
+        handleProfilerKeys();
+        avatar.setTopLeftCorner(simulatedAvatarCorner);
+        unsimulatedTime = Math.min(unsimulatedTime + deltaTime,
+                MAX_STEPS_PER_FRAME * SIMULATION_STEP);
+        stepsPerFrame = 0;
+        while (unsimulatedTime >= SIMULATION_STEP) {
+            previousAvatarCorner = simulatedAvatarCorner;
+            simulate();
+            simulatedAvatarCorner = avatar.getTopLeftCorner();
+            unsimulatedTime -= SIMULATION_STEP;
+            stepsPerFrame++;
+        }
+        interpolateAvatar(unsimulatedTime / SIMULATION_STEP);
+        camera().update(0);
+        dayNight.update(worldClock);
+        chunkManager.update(camera().getCenter().x());
+        foliageSystem.update(deltaTime);
+        timeSinceAutosave += deltaTime;
+        if (worldDirectory != null && timeSinceAutosave >= AUTOSAVE_INTERVAL) {
+            floraStreamer.storeChangedChunks();
+            timeSinceAutosave = 0;
+        }
+        frameProfiler.endUpdate();
+        if (event.shouldCommit()) {
+            event.deltaTime = (long) (deltaTime * NANOS_PER_SECOND);
+            event.commit();
+        }
+    }
+
+    /**
+     * Retrieves the estimated number of collision pairs the engine checked in the last simulation
+     * tick: the upper bound allowed by the collision matrix, not the pairs the engine's broadphase
+     * actually tested.
+     * @return The estimated number of collision pairs checked in the last simulation tick.
+     */
+    public long getEstimatedCollisionPairs() {
+        return estimatedCollisionPairs;
+    }
+
+    /*
+     * Runs a single simulation tick: activates the static colliders around the avatar before the
+     * engine resolves collisions, advances the world clock and the fruit respawns derived from
+     * it, and updates the game objects by a fixed step.
+     */
+    private void simulate() {
+        staticColliders.update(movingObjects);
+        estimatedCollisionPairs = GameLayers.estimatedCollisionPairs(
+                layer -> objectsPerLayer.getOrDefault(layer, 0));
+        worldClock.advance(SIMULATION_STEP);
+        respawnScheduler.update();
+        super.update(SIMULATION_STEP);
+    }
+
+    /*
+     * Places the avatar, for rendering, between its positions of the last two ticks. The engine's
+     * vectors are immutable, so the interpolated corner is computed as floats and allocated as a
+     * single vector, and only if the avatar moved between the ticks and the frame falls between
+     * them; otherwise the corner of the earlier tick is reused.
+     * @param progress The fraction of a tick since the last tick, between 0 and 1.
+     */
+    private void interpolateAvatar(float progress) {
+        float x = previousAvatarCorner.x();
+        float y = previousAvatarCorner.y();
+        float deltaX = simulatedAvatarCorner.x() - x;
+        float deltaY = simulatedAvatarCorner.y() - y;
+        if (progress == 0 || (deltaX == 0 && deltaY == 0)) {
+            avatar.setTopLeftCorner(previousAvatarCorner);
+        } else {
+            avatar.setTopLeftCorner(new Vector2(x + deltaX * progress, y + deltaY * progress));
+        }
+    }
+
+    /*
+     * Shows or hides the frame profiler overlay and starts or stops its recording when their
+     * keys are pressed, once per key press.
+     */
+    private void handleProfilerKeys() {
+        boolean overlayKeyPressed = inputListener.isKeyPressed(PROFILER_OVERLAY_KEY);
+        if (overlayKeyPressed && !overlayKeyWasPressed) {
+            profilerOverlayVisible = !profilerOverlayVisible;
+        }
+        overlayKeyWasPressed = overlayKeyPressed;
+        boolean recordingKeyPressed = inputListener.isKeyPressed(PROFILER_RECORDING_KEY);
+        if (recordingKeyPressed && !recordingKeyWasPressed) {
+            if (frameProfiler.isRecording()) {
+                frameProfiler.stopRecording();
+            } else {
+                frameProfiler.startRecording(Paths.get(PROFILER_CSV_FILE));
+            }
+        }
+        recordingKeyWasPressed = recordingKeyPressed;
+    }
+
+    /**
+     * Collects the counters of the game, as shown and recorded by the frame profiler: the number
+     * of game objects in every layer, and the sizes of the systems that manage objects outside
+     * the engine's components.
+     * @return The counters, always with the same names in the same order.
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        GameLayers.forEachLayer((name, layer) ->
+                counters.put(name, (long) objectsPerLayer.getOrDefault(layer, 0)));
+        counters.put("chunks", (long) chunkManager.getLoadedChunkCount());
+        counters.put("pending_chunks", (long) chunkManager.getPendingChunkCount());
+        counters.put("failed_chunks", (long) chunkManager.getFailedChunkCount());
+        counters.put("active_colliders", (long) staticColliders.getActiveCount());
+        counters.put("animated_leaves", (long) foliageSystem.getLeafCount());
+        counters.put("pending_respawns", (long) respawnScheduler.getPendingCount());
+        counters.put("est_collision_pairs", estimatedCollisionPairs);
+        counters.put("simulation_steps", stepsPerFrame);
+        return counters;
     }
 
     /*
-     * Creates and adds the sun and its halo to the game.
+     * Creates the world clock, running at the time scale of the time scale system property, and
+     * adds the sun, its halo and the night overlay to the game. They, and the sky, lit by a
+     * lookup table painted in the style of the sky style system property, are driven by the
+     * clock.
+     * @param sky              The sky of the game world.
      * @param windowDimensions The dimensions of the game window.
      */
-    private void createSun(Vector2 windowDimensions) {
-        GameObject sun = Sun.create(windowDimensions, DAY_TIME_CYCLE);
+    private void createDayNight(GameObject sky, Vector2 windowDimensions) {
+        this.worldClock = new WorldClock(DAY_TIME_CYCLE);
+        worldClock.setTimeScale(Float.parseFloat(
+                System.getProperty(TIME_SCALE_PROPERTY, DEFAULT_TIME_SCALE)));
+        GameObject sun = Sun.create(windowDimensions);
         GameObject sunHalo = SunHalo.create(sun);
-        gameObjects().addGameObject(sunHalo,Layer.STATIC_OBJECTS);
-        gameObjects().addGameObject(sun,Layer.STATIC_OBJECTS);
+        addObject(sunHalo, GameLayers.SUN);
+        addObject(sun, GameLayers.SUN);
+        GameObject night = Night.create(windowDimensions);
+        addObject(night, GameLayers.NIGHT);
+        SkyLut skyLut = new SkyLut(SkyLut.Style.valueOf(
+                System.getProperty(SKY_STYLE_PROPERTY, DEFAULT_SKY_STYLE)));
+        this.dayNight = new DayNight(sun, sunHalo, sky, night, skyLut, windowDimensions);
     }
 
 
     /*
-     * Creates flora objects in the game world.
+     * Creates the flora of the game world and streams its trees along with the terrain chunks.
+     * The trees observe the avatar's jumps through a registry that only notifies the trees within
+     * a window's width of the camera center, and their leaves are animated by a single foliage
+     * system that only writes to the leaves in view. The fruits eaten in every chunk are kept in
+     * the region store.
      * @param terrain           The terrain of the game world.
      * @param avatar            The player's avatar.
      * @param windowDimensions  The dimensions of the game window.
      */
     private void createFlora(Terrain terrain, Avatar avatar, Vector2 windowDimensions) {
-        Flora flora = new Flora(DAY_TIME_CYCLE,terrain::groundHeightAt, avatar::increaseEnergy);
-        createTrees(flora, windowDimensions, avatar);
+        this.respawnScheduler = new RespawnScheduler(worldClock,
+                fruit -> floraStreamer.onFruitChanged(fruit));
+        Flora flora = new Flora(terrain.getSeed(), DAY_TIME_CYCLE, terrain::groundHeightAt,
+                respawnScheduler, avatar::increaseEnergy);
+        JumpObserverRegistry jumpObservers =
+                new JumpObserverRegistry(() -> camera().getCenter().x(), windowDimensions.x());
+        avatar.addJumpObserver(jumpObservers);
+        this.foliageSystem = new FoliageSystem(() -> camera().getCenter().x(), windowDimensions.x());
+        this.floraStreamer = new FloraStreamer(flora, jumpObservers, foliageSystem,
+                respawnScheduler, regionStore, GameLayers.GROUND, GameLayers.LEAVES,
+                GameLayers.FRUIT, this::addObject, this::removeObject);
+        chunkManager.addChunkListener(floraStreamer);
     }
 
     /*
-     * Creates trees for the specified flora and adds them to the game world.
-     * @param flora             The flora for which trees are created.
+     * Opens the region store of the world, in the world directory or in a temporary one for a
+     * world that is not saved, and creates its terrain and the chunk manager that streams its
+     * blocks and ground colliders into the game. A new world gets the seed of the seed system
+     * property, or a random one.
      * @param windowDimensions  The dimensions of the game window.
-     * @param avatar            The player's avatar.
+     * @return                  The generated terrain.
+     * @throws UncheckedIOException If the temporary directory cannot be created.
      */
-    private void createTrees(Flora flora, Vector2 windowDimensions, Avatar avatar) {
-        ArrayList<Tree> treesArray = flora.createInRange(START_X, (int)windowDimensions.x());
-        for (Tree tree: treesArray){
-            gameObjects().addGameObject(tree.getStump(), Layer.STATIC_OBJECTS);
-            avatar.addJumpObserver((OnJumpObserver) tree.getStump());
-            for (GameObject object: tree.getLeavesAndFruitsArray()){
-                avatar.addJumpObserver((OnJumpObserver) object);
-                gameObjects().addGameObject(object, Layer.DEFAULT);
+    private Terrain createTerrain(Vector2 windowDimensions) {
+        Path directory = worldDirectory;
+        if (directory == null) {
+            try {
+                directory = Files.createTempDirectory(UNSAVED_WORLD_PREFIX);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
+        this.regionStore = new RegionStore(directory,
+                () -> Integer.getInteger(SEED_PROPERTY, new Random().nextInt()),
+                ForkJoinPool.commonPool());
+        Terrain terrain = new Terrain(windowDimensions, regionStore.getSeed(),
+                Terrain.CollisionMode.PER_COLUMN_RUN, Terrain.RenderMode.BAKED);
+        int blockLayer = terrain.getCollisionMode() == Terrain.CollisionMode.PER_BLOCK ?
+                GameLayers.GROUND : GameLayers.TERRAIN_VISUAL;
+        this.chunkManager = new ChunkManager(terrain, blockLayer, GameLayers.GROUND,
+                this::addObject, this::removeObject, windowDimensions.x(),
+                ForkJoinPool.commonPool());
+        return terrain;
+    }
+
+    /**
+     * Closes the world once the game no longer updates, on the thread that updated it: a saved
+     * world stores its loaded chunks' eaten fruits and writes them to its region files, and a
+     * world that is not saved deletes its temporary directory. Either waits for the background
+     * writes of the region files first.
+     */
+    public void closeWorld() {
+        if (regionStore == null) {
+            return;
+        }
+        if (worldDirectory != null) {
+            floraStreamer.storeLoadedChunks();
+            regionStore.flush();
+        } else {
+            regionStore.delete();
+        }
     }
 
     /*
-     * Creates terrain blocks for the game world and adds them to the game.
-     * @param windowDimensions  The dimensions of the game window.
-     * @return                  The generated terrain.
+     * Adds a game object to the given layer. Immovable objects of the ground layer go through
+     * the static collider grid, which only puts them in the ground layer near a moving object.
+     * @param object    The game object to add.
+     * @param layer     The layer to add it to.
      */
-    private Terrain createTerrain(Vector2 windowDimensions) {
-        Terrain terrain = new Terrain(windowDimensions, new Random().nextInt());
-        List<Block> blockList = terrain.createInRange(START_X, (int) (windowDimensions.x()));
-        for (Block block:blockList){
-            gameObjects().addGameObject(block,Layer.STATIC_OBJECTS);
+    private void addObject(GameObject object, int layer) {
+        if (layer == GameLayers.GROUND) {
+            staticColliders.insert(object);
+        } else {
+            addToGame(object, layer);
+        }
+    }
+
+    /*
+     * Removes a game object from the given layer, or from the static collider grid for the
+     * ground layer.
+     * @param object    The game object to remove.
+     * @param layer     The layer to remove it from.
+     */
+    private void removeObject(GameObject object, int layer) {
+        if (layer == GameLayers.GROUND) {
+            staticColliders.remove(object);
+        } else {
+            removeFromGame(object, layer);
+        }
+    }
+
+    /*
+     * Adds a game object to the given layer, keeping count of the objects in every layer.
+     * @param object    The game object to add.
+     * @param layer     The layer to add it to.
+     */
+    private void addToGame(GameObject object, int layer) {
+        gameObjects().addGameObject(object, layer);
+        objectsPerLayer.merge(layer, 1, Integer::sum);
+    }
+
+    /*
+     * Removes a game object from the given layer, keeping count of the objects in every layer.
+     * @param object    The game object to remove.
+     * @param layer     The layer to remove it from.
+     */
+    private void removeFromGame(GameObject object, int layer) {
+        if (gameObjects().removeGameObject(object, layer)) {
+            objectsPerLayer.merge(layer, -1, Integer::sum);
         }
-        return terrain;
     }
 }
@@ -0,0 +1,119 @@
+package pepse.simulation;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.Sky;
+import pepse.world.WorldClock;
+import pepse.world.daynight.DayNight;
+import pepse.world.daynight.Night;
+import pepse.world.daynight.SkyLut;
+import pepse.world.daynight.Sun;
+import pepse.world.daynight.SunHalo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Checks that the day-night pass allocates nothing per frame. The sun, its halo, the sky and the
+ * night overlay are driven through many day-night cycles with each sky style, first to warm up,
+ * then while the bytes the thread allocates are measured. Exits with a non-zero status if the
+ * pass allocates more than a small tolerance per frame, or if the JVM cannot measure
+ * allocations.
+ */
+public class DayNightAllocationCheck {
+
+    /**
+     * The dimensions of the simulated window. It is a constant (static final).
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+
+    /**
+     * The duration of a day-night cycle in seconds. It is a constant (static final).
+     */
+    private static final float DAY_TIME_CYCLE = 30;
+
+    /**
+     * The fixed time step of a single frame, in seconds. It is a constant (static final).
+     */
+    private static final float FIXED_STEP = 1f / 60;
+
+    /**
+     * The number of frames run before measuring, for the pass to be compiled. It is a constant
+     * (static final).
+     */
+    private static final int WARMUP_FRAMES = 50_000;
+
+    /**
+     * The number of measured frames, covering many day-night cycles. It is a constant
+     * (static final).
+     */
+    private static final int MEASURED_FRAMES = 100_000;
+
+    /**
+     * The bytes per frame tolerated, for the measurement's own noise. Any real allocation in the
+     * pass costs at least an object header per frame. It is a constant (static final).
+     */
+    private static final double MAX_BYTES_PER_FRAME = 0.05;
+
+    /**
+     * Entry point for the allocation check.
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean) ||
+                !((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            System.err.println("this JVM cannot measure the bytes a thread allocates");
+            System.exit(1);
+        }
+        com.sun.management.ThreadMXBean allocationBean =
+                (com.sun.management.ThreadMXBean) threadBean;
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        boolean failed = false;
+        for (SkyLut.Style style : SkyLut.Style.values()) {
+            double bytesPerFrame = measure(style, allocationBean);
+            boolean allocates = bytesPerFrame > MAX_BYTES_PER_FRAME;
+            System.out.printf("day-night bytes per frame, %s sky: %.4f%s%n", style, bytesPerFrame,
+                    allocates ? " FAILED" : "");
+            failed |= allocates;
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * Measures the bytes the day-night pass allocates per frame after warming up.
+     * @param style          The style the sky is painted in.
+     * @param allocationBean Measures the bytes the thread allocates.
+     * @return               The bytes allocated per measured frame.
+     */
+    private static double measure(SkyLut.Style style,
+                                  com.sun.management.ThreadMXBean allocationBean) {
+        GameObject sky = Sky.create(WINDOW_DIMENSIONS);
+        GameObject sun = Sun.create(WINDOW_DIMENSIONS);
+        GameObject sunHalo = SunHalo.create(sun);
+        GameObject night = Night.create(WINDOW_DIMENSIONS);
+        WorldClock clock = new WorldClock(DAY_TIME_CYCLE);
+        DayNight dayNight = new DayNight(sun, sunHalo, sky, night, new SkyLut(style),
+                WINDOW_DIMENSIONS);
+        runFrames(dayNight, clock, WARMUP_FRAMES);
+        long allocatedBefore = allocationBean.getCurrentThreadAllocatedBytes();
+        runFrames(dayNight, clock, MEASURED_FRAMES);
+        long allocated = allocationBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return (double) allocated / MEASURED_FRAMES;
+    }
+
+    /*
+     * Advances the clock and runs the day-night pass for the given number of frames.
+     * @param dayNight The day-night pass.
+     * @param clock    The world clock.
+     * @param frames   The number of frames.
+     */
+    private static void runFrames(DayNight dayNight, WorldClock clock, int frames) {
+        for (int i = 0; i < frames; i++) {
+            clock.advance(FIXED_STEP);
+            dayNight.update(clock);
+        }
+    }
+}
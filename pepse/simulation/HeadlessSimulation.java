@@ -0,0 +1,255 @@
+package pepse.simulation;
+
+import danogl.gui.ImageReader;
+import danogl.gui.SoundReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Runs the Pepse game without a window. The game manager is initialized and updated exactly as
+ * by the engine, at a fixed step as fast as the CPU allows, through a window controller and an
+ * input listener that stand in for the window, and an image reader that hands out placeholder
+ * images. A scripted player walks back and forth and jumps every now and then. The runner reports
+ * ticks per second, the game's counters and per-frame time percentiles.
+ */
+public class HeadlessSimulation {
+
+    /**
+     * The dimensions of the simulated window. It is a constant (static final).
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+
+    /**
+     * The fixed time step of a single tick, in seconds. It is a constant (static final).
+     */
+    private static final float FIXED_STEP = 1f / 60;
+
+    /**
+     * The number of ticks simulated when none is given. It is a constant (static final).
+     */
+    private static final int DEFAULT_TICKS = 20000;
+
+    /**
+     * The number of ticks after which the scripted player turns around. It is a constant
+     * (static final).
+     */
+    private static final int TICKS_PER_WALK_LEG = 3000;
+
+    /**
+     * The number of ticks between two scripted jumps. It is a constant (static final).
+     */
+    private static final int TICKS_PER_JUMP = 90;
+
+    /**
+     * The system property of the game that sets the seed of a new world. It is a constant
+     * (static final).
+     */
+    private static final String SEED_PROPERTY = "pepse.seed";
+
+    /**
+     * The number of nanoseconds in a millisecond. It is a constant (static final).
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The number of nanoseconds in a second. It is a constant (static final).
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The format of the report line of a single percentile. It is a constant (static final).
+     */
+    private static final String PERCENTILE_FORMAT = "  p%-5s %8.3f ms%n";
+
+    private final PepseGameManager game;
+    private int tickIndex;
+
+    /**
+     * Initializes the game for a headless simulation. The world is a new one, which the game
+     * deletes when the simulation closes it.
+     * @param seed The seed the world is generated from.
+     */
+    public HeadlessSimulation(int seed) {
+        System.setProperty(SEED_PROPERTY, Integer.toString(seed));
+        WindowController windowController = headlessWindow();
+        this.game = new PepseGameManager();
+        game.initializeGame(new PlaceholderImageReader(windowController),
+                new SoundReader(windowController), scriptedInput(), windowController);
+    }
+
+    /**
+     * Entry point for the headless simulation.
+     * @param args Optionally, the number of ticks to simulate, followed by the world seed.
+     */
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        int seed = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        HeadlessSimulation simulation = new HeadlessSimulation(seed);
+        long startTime = System.nanoTime();
+        long[] frameNanos = simulation.run(ticks);
+        long totalNanos = System.nanoTime() - startTime;
+        simulation.report(frameNanos, totalNanos);
+        simulation.game.closeWorld();
+    }
+
+    /**
+     * Runs the given number of fixed-step ticks of the game.
+     * @param ticks The number of ticks to simulate.
+     * @return      The time every tick took, in nanoseconds.
+     */
+    public long[] run(int ticks) {
+        long[] frameNanos = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            long tickStart = System.nanoTime();
+            game.update(FIXED_STEP);
+            frameNanos[i] = System.nanoTime() - tickStart;
+            tickIndex++;
+        }
+        return frameNanos;
+    }
+
+    /*
+     * Tells whether the scripted player presses a key in the current tick: it walks right and
+     * left in turn, and presses the jump key for a single tick every now and then.
+     * @param keyCode The code of the key.
+     * @return        Whether the key is pressed.
+     */
+    private boolean isScriptedKeyPressed(int keyCode) {
+        boolean walkingRight = (tickIndex / TICKS_PER_WALK_LEG) % 2 == 0;
+        switch (keyCode) {
+            case KeyEvent.VK_RIGHT:
+                return walkingRight;
+            case KeyEvent.VK_LEFT:
+                return !walkingRight;
+            case KeyEvent.VK_SPACE:
+                return tickIndex % TICKS_PER_JUMP == 0;
+            default:
+                return false;
+        }
+    }
+
+    /*
+     * Creates an input listener whose keys are pressed by the scripted player.
+     * @return The input listener.
+     */
+    private UserInputListener scriptedInput() {
+        return headless(UserInputListener.class, (proxy, method, args) ->
+                method.getName().equals("isKeyPressed") ?
+                        isScriptedKeyPressed((Integer) args[0]) :
+                        defaultValue(proxy, method.getName(), args, method.getReturnType()));
+    }
+
+    /*
+     * Creates a window controller of a window of WINDOW_DIMENSIONS that does nothing.
+     * @return The window controller.
+     */
+    private static WindowController headlessWindow() {
+        return headless(WindowController.class, (proxy, method, args) ->
+                method.getReturnType() == Vector2.class ? WINDOW_DIMENSIONS :
+                        defaultValue(proxy, method.getName(), args, method.getReturnType()));
+    }
+
+    /*
+     * Creates a stand-in implementation of an engine interface.
+     * @param type    The interface.
+     * @param handler Handles every call of the interface's methods.
+     * @return        The stand-in implementation.
+     */
+    private static <T> T headless(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                handler));
+    }
+
+    /*
+     * Retrieves the result of a call a stand-in does not care about: identity for the methods
+     * of Object, and false, zero or null otherwise.
+     * @param proxy      The stand-in.
+     * @param methodName The name of the called method.
+     * @param args       The arguments of the call.
+     * @param returnType The return type of the called method.
+     * @return           The result of the call.
+     */
+    private static Object defaultValue(Object proxy, String methodName, Object[] args,
+                                       Class<?> returnType) {
+        switch (methodName) {
+            case "equals":
+                return args != null && args.length == 1 && proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "headless";
+            default:
+                if (returnType == void.class || !returnType.isPrimitive()) {
+                    return null;
+                }
+                return Array.get(Array.newInstance(returnType, 1), 0);
+        }
+    }
+
+    /*
+     * Prints the ticks per second, the game's counters and the per-frame time percentiles of a
+     * run.
+     * @param frameNanos The time every tick took, in nanoseconds.
+     * @param totalNanos The wall-clock time of the whole run, in nanoseconds.
+     */
+    private void report(long[] frameNanos, long totalNanos) {
+        long[] sorted = frameNanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("ticks: %d, ticks/s: %.1f%n", frameNanos.length,
+                frameNanos.length * NANOS_PER_SECOND / totalNanos);
+        for (Map.Entry<String, Long> counter : game.getCounters().entrySet()) {
+            System.out.printf("  %-20s %d%n", counter.getKey(), counter.getValue());
+        }
+        System.out.println("frame time:");
+        System.out.printf(PERCENTILE_FORMAT, "50", percentile(sorted, 0.5) / NANOS_PER_MILLI);
+        System.out.printf(PERCENTILE_FORMAT, "95", percentile(sorted, 0.95) / NANOS_PER_MILLI);
+        System.out.printf(PERCENTILE_FORMAT, "99", percentile(sorted, 0.99) / NANOS_PER_MILLI);
+        System.out.printf(PERCENTILE_FORMAT, "99.9", percentile(sorted, 0.999) / NANOS_PER_MILLI);
+        System.out.printf(PERCENTILE_FORMAT, "max", percentile(sorted, 1) / NANOS_PER_MILLI);
+    }
+
+    /*
+     * Retrieves the value at the given fraction of a sorted array, by the nearest-rank method.
+     * @param sorted    The sorted values.
+     * @param fraction  The fraction, between 0 and 1.
+     * @return          The value at the given fraction.
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /*
+     * An image reader that hands out a single transparent placeholder image instead of reading
+     * image files, which a headless run has no use for.
+     */
+    private static final class PlaceholderImageReader extends ImageReader {
+        private final ImageRenderable placeholder;
+
+        private PlaceholderImageReader(WindowController windowController) {
+            super(windowController);
+            this.placeholder = new ImageRenderable(
+                    new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        }
+
+        @Override
+        public ImageRenderable readImage(String imageFilePath,
+                                         boolean useTopLeftPixelAsBackground) {
+            return placeholder;
+        }
+    }
+}
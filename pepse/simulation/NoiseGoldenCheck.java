@@ -0,0 +1,155 @@
+package pepse.simulation;
+
+import pepse.util.NoiseGenerator;
+
+/**
+ * Checks that NoiseGenerator still produces, bit for bit, the noise of the original generator,
+ * so that the terrain of a saved world's seed never changes under it. Every kernel is sampled
+ * through noise and both noiseRange overloads at a few fixed seeds, start points and x values,
+ * and compared against hard-coded values of the original generator. Exits with a non-zero
+ * status, listing every mismatch, if any of them differs.
+ */
+public class NoiseGoldenCheck {
+
+    /**
+     * The factor the noise is sampled with, as used by the terrain. It is a constant
+     * (static final).
+     */
+    private static final double FACTOR = 210;
+
+    /**
+     * The seeds the noise is sampled at. The last one is not integral, for which the 1D kernel
+     * falls back to the 3D one. It is a constant (static final).
+     */
+    private static final double[] SEEDS = {0, 1234, -98765, 2.5};
+
+    /**
+     * The start point of the generator of every seed. It is a constant (static final).
+     */
+    private static final int[] START_POINTS = {480, 480, 300, 480};
+
+    /**
+     * The x values noise is sampled at. It is a constant (static final).
+     */
+    private static final double[] X_VALUES = {0, 15.5, -1234.25, 15510, 250000.75};
+
+    /**
+     * The noise of the original generator at every seed and x value. It is a constant
+     * (static final).
+     */
+    private static final double[][] EXPECTED_NOISE = {
+            {0.0, 22.525321653524227, -1.6009706988608734, -0.7149696350097656,
+                    -45.01236192968323},
+            {0.0, 6.4743430826417745, -31.366275279694214, 40.241299867630005,
+                    17.927330399281438},
+            {0.0, -38.41737090639338, -0.09830214621184682, 3.420269999587193,
+                    -89.21542003316169},
+            {209.58984375, 215.92209590835304, -60.548827654504905, -51.769872307777405,
+                    -59.455030171746806}};
+
+    /**
+     * The first x value of the sampled ranges. It is a constant (static final).
+     */
+    private static final double RANGE_START_X = -1234.25;
+
+    /**
+     * The distance between two x values of the sampled ranges, a block's size. It is a
+     * constant (static final).
+     */
+    private static final double RANGE_STEP = 30;
+
+    /**
+     * The noise of the original generator over the sampled range of every seed. It is a
+     * constant (static final).
+     */
+    private static final double[][] EXPECTED_RANGES = {
+            {-1.6009706988608734, -3.44633781089508, -3.5057275065968203, 17.806381484496605,
+                    44.984882521003485, 28.755985357676455},
+            {-31.366275279694214, -50.41636844690658, -65.20347061751905, -73.23261606318103,
+                    -61.88264669095875, -48.5266999073065},
+            {-0.09830214621184682, 0.7107633746220284, 0.7908347093736914, 27.05451348142834,
+                    47.707032828174704, 40.09167339043417},
+            {-60.548827654504905, -39.765459133971554, -44.66905136610337, -65.25265374780172,
+                    -38.73891215173103, -14.643719662207413}};
+
+    /**
+     * The number of samples of the long float batch, spanning several of the generator's
+     * blocks. It is a constant (static final).
+     */
+    private static final int LONG_RANGE_COUNT = 150;
+
+    private int checks;
+    private int mismatches;
+
+    /**
+     * Entry point for the noise check.
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        NoiseGoldenCheck check = new NoiseGoldenCheck();
+        for (NoiseGenerator.Kernel kernel : NoiseGenerator.Kernel.values()) {
+            for (int i = 0; i < SEEDS.length; i++) {
+                check.checkGenerator(new NoiseGenerator(SEEDS[i], START_POINTS[i], kernel),
+                        kernel, i);
+            }
+        }
+        System.out.printf("noise checks: %d, mismatches: %d%n", check.checks, check.mismatches);
+        if (check.mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /*
+     * Compares the noise and the noise ranges of a generator against the original generator's.
+     * @param generator The generator to check.
+     * @param kernel    The kernel of the generator, for the report.
+     * @param seedIndex The index of the generator's seed and start point.
+     */
+    private void checkGenerator(NoiseGenerator generator, NoiseGenerator.Kernel kernel,
+                                int seedIndex) {
+        for (int i = 0; i < X_VALUES.length; i++) {
+            compare(kernel, seedIndex, "noise", X_VALUES[i],
+                    generator.noise(X_VALUES[i], FACTOR), EXPECTED_NOISE[seedIndex][i]);
+        }
+        double[] range = new double[EXPECTED_RANGES[seedIndex].length];
+        generator.noiseRange(RANGE_START_X, RANGE_STEP, range.length, FACTOR, range);
+        for (int i = 0; i < range.length; i++) {
+            compare(kernel, seedIndex, "noiseRange", RANGE_START_X + i * RANGE_STEP, range[i],
+                    EXPECTED_RANGES[seedIndex][i]);
+        }
+        float[] floatRange = new float[EXPECTED_RANGES[seedIndex].length];
+        generator.noiseRange(RANGE_START_X, RANGE_STEP, floatRange.length, FACTOR, floatRange);
+        for (int i = 0; i < floatRange.length; i++) {
+            compare(kernel, seedIndex, "noiseRange(float[])", RANGE_START_X + i * RANGE_STEP,
+                    floatRange[i], (float) EXPECTED_RANGES[seedIndex][i]);
+        }
+        // A float batch longer than a block must match noise() across the block boundaries.
+        float[] longRange = new float[LONG_RANGE_COUNT];
+        generator.noiseRange(RANGE_START_X, RANGE_STEP, longRange.length, FACTOR, longRange);
+        for (int i = 0; i < longRange.length; i++) {
+            double x = RANGE_START_X + i * RANGE_STEP;
+            compare(kernel, seedIndex, "noiseRange(float[]) long", x, longRange[i],
+                    (float) generator.noise(x, FACTOR));
+        }
+    }
+
+    /*
+     * Compares a single noise value, bit for bit, and reports it if it differs.
+     * @param kernel    The kernel of the generator.
+     * @param seedIndex The index of the generator's seed and start point.
+     * @param method    The name of the sampled method.
+     * @param x         The sampled x value.
+     * @param actual    The noise of the generator.
+     * @param expected  The noise of the original generator.
+     */
+    private void compare(NoiseGenerator.Kernel kernel, int seedIndex, String method, double x,
+                         double actual, double expected) {
+        checks++;
+        if (Double.doubleToLongBits(actual) != Double.doubleToLongBits(expected)) {
+            mismatches++;
+            System.err.printf("MISMATCH %s %s seed=%s startPoint=%d x=%s: expected %s, got %s%n",
+                    kernel, method, SEEDS[seedIndex], START_POINTS[seedIndex], x, expected,
+                    actual);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package pepse.userinterface;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+import pepse.util.FrameProfiler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * This class represents the frame profiler overlay, lines of text under the energy bar that show
+ * the frame time, the update and render split, the allocation rate and the game's counters.
+ */
+public class UiFrameProfiler {
+
+    /**
+     * The height of a line of the overlay. It is a constant (static final).
+     */
+    private static final int LINE_HEIGHT = 20;
+
+    /**
+     * The width of a line of the overlay. It is a constant (static final).
+     */
+    private static final int LINE_WIDTH = 600;
+
+    /**
+     * The position of the first line of the overlay, under the energy bar. It is a constant
+     * (static final).
+     */
+    private static final Vector2 FIRST_LINE_POSITION = new Vector2(5, 60);
+
+    /**
+     * The number of counters shown in a single line. It is a constant (static final).
+     */
+    private static final int COUNTERS_PER_LINE = 6;
+
+    /**
+     * The time between two refreshes of the overlay's text, in seconds, so that formatting the
+     * text does not weigh on every frame. It is a constant (static final).
+     */
+    private static final float REFRESH_INTERVAL = 0.5f;
+
+    /**
+     * The number of bytes in a megabyte. It is a constant (static final).
+     */
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+
+    /*
+    Private constructor to prevent instantiation
+    */
+    private UiFrameProfiler() {}
+
+    /**
+     * Creates the GameObjects of the lines of the overlay. The first line refreshes the text of
+     * every line while the overlay is visible, and clears it while it is not.
+     * @param profiler  The frame profiler whose measurements are shown.
+     * @param counters  Supplies the counters shown, always with the same names in the same order.
+     * @param visible   Whether the overlay is visible.
+     * @return The GameObjects representing the lines of the overlay.
+     */
+    public static List<GameObject> create(FrameProfiler profiler,
+                                          Supplier<Map<String, Long>> counters,
+                                          BooleanSupplier visible) {
+        int lineCount = 2 + (counters.get().size() + COUNTERS_PER_LINE - 1) / COUNTERS_PER_LINE;
+        List<TextRenderable> texts = new ArrayList<>();
+        List<GameObject> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            TextRenderable text = new TextRenderable("");
+            Vector2 linePosition = FIRST_LINE_POSITION.add(Vector2.DOWN.mult(i * LINE_HEIGHT));
+            GameObject line = new GameObject(linePosition, new Vector2(LINE_WIDTH, LINE_HEIGHT),
+                    text);
+            line.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            texts.add(text);
+            lines.add(line);
+        }
+        float[] timeSinceRefresh = {REFRESH_INTERVAL};
+        lines.get(0).addComponent(deltaTime -> {
+            timeSinceRefresh[0] += deltaTime;
+            if (timeSinceRefresh[0] < REFRESH_INTERVAL) {
+                return;
+            }
+            timeSinceRefresh[0] = 0;
+            if (visible.getAsBoolean()) {
+                refresh(texts, profiler, counters.get());
+            } else {
+                for (TextRenderable text : texts) {
+                    text.setString("");
+                }
+            }
+        });
+        return lines;
+    }
+
+    /*
+     * Describes the state of the profiler's recording, to be appended to a line of the overlay.
+     * @param profiler The frame profiler.
+     * @return         The description, empty if the profiler neither records nor has failed to.
+     */
+    private static String recordingStatus(FrameProfiler profiler) {
+        if (profiler.isRecording()) {
+            return ", recording";
+        }
+        String error = profiler.getRecordingError();
+        return error == null ? "" : ", recording failed: " + error;
+    }
+
+    /*
+     * Writes the measurements and counters to the lines of the overlay.
+     * @param texts     The text renderables of the lines.
+     * @param profiler  The frame profiler whose measurements are shown.
+     * @param counters  The counters shown.
+     */
+    private static void refresh(List<TextRenderable> texts, FrameProfiler profiler,
+                                Map<String, Long> counters) {
+        texts.get(0).setString(String.format("frame %.2f ms avg, %.2f ms p99",
+                profiler.getAverageFrameMillis(), profiler.getP99FrameMillis()));
+        texts.get(1).setString(String.format("update %.2f ms, render+wait %.2f ms, " +
+                        "alloc %.1f MB/s%s", profiler.getAverageUpdateMillis(),
+                profiler.getAverageRestMillis(),
+                profiler.getAllocatedBytesPerSecond() / BYTES_PER_MEGABYTE,
+                recordingStatus(profiler)));
+        Iterator<Map.Entry<String, Long>> counter = counters.entrySet().iterator();
+        for (int i = 2; i < texts.size(); i++) {
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < COUNTERS_PER_LINE && counter.hasNext(); j++) {
+                Map.Entry<String, Long> entry = counter.next();
+                line.append(j == 0 ? "" : ", ").append(entry.getKey()).append(' ')
+                        .append(entry.getValue());
+            }
+            texts.get(i).setString(line.toString());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package pepse.util;
+
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Provides shared, procedurally-generated colors around a pivot. Every base color gets a bounded
+ * palette of jittered colors, and their rectangle renderables, that are handed out at random
+ * instead of being created anew for every game object. A palette is derived from its base color
+ * and delta alone, so it is the same in every run, and every pick is drawn from a random
+ * generator of the caller's, so that it can be seeded.
+ */
+public final class ColorPalette {
+
+    /**
+     * The number of jittered colors in every palette. It is a constant (static final).
+     */
+    public static final int PALETTE_SIZE = 16;
+
+    private static final int DEFAULT_COLOR_DELTA = 10;
+    private final static Map<Long, Palette> palettes = new ConcurrentHashMap<>();
+
+    /*
+     * Private constructor to prevent instantiation.
+     */
+    private ColorPalette() {}
+
+    /**
+     * Returns a shared rectangle renderable of a color similar to baseColor, with a default delta,
+     * picked by the given random generator.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param random The random generator that picks the renderable.
+     * @return A shared rectangle renderable of a color similar to baseColor.
+     */
+    public static Renderable approximateRenderable(Color baseColor, RandomGenerator random) {
+        return paletteOf(baseColor, DEFAULT_COLOR_DELTA).renderables[random.nextInt(PALETTE_SIZE)];
+    }
+
+    /**
+     * Returns the shared color at the given index of the palette of baseColor, with a default
+     * delta, for callers that store a small variant index instead of a color.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param variant The index of the color in the palette, between 0 and PALETTE_SIZE - 1.
+     * @return The shared color at the given index.
+     */
+    public static Color colorAt(Color baseColor, int variant) {
+        return paletteOf(baseColor, DEFAULT_COLOR_DELTA).colors[variant];
+    }
+
+    /**
+     * Returns the shared rectangle renderable at the given index of the palette of baseColor,
+     * with a default delta.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param variant The index of the renderable in the palette, between 0 and PALETTE_SIZE - 1.
+     * @return The shared rectangle renderable at the given index.
+     */
+    public static Renderable renderableAt(Color baseColor, int variant) {
+        return paletteOf(baseColor, DEFAULT_COLOR_DELTA).renderables[variant];
+    }
+
+    /**
+     * Returns all the shared rectangle renderables of the palette of baseColor, with a default
+     * delta, so that callers can cycle through them without any further lookup.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @return A new array of the shared rectangle renderables of colors similar to baseColor.
+     */
+    public static Renderable[] renderablesOf(Color baseColor) {
+        return paletteOf(baseColor, DEFAULT_COLOR_DELTA).renderables.clone();
+    }
+
+    /*
+     * Retrieves the palette of a base color and delta, creating it on first use.
+     */
+    private static Palette paletteOf(Color baseColor, int colorDelta) {
+        long key = ((long) baseColor.getRGB() << Integer.SIZE) | (colorDelta & 0xFFFFFFFFL);
+        return palettes.computeIfAbsent(key, k -> new Palette(baseColor, colorDelta, k));
+    }
+
+    /*
+     * The jittered colors of a single base color, and a rectangle renderable of each of them.
+     */
+    private static final class Palette {
+        private final Color[] colors;
+        private final Renderable[] renderables;
+
+        private Palette(Color baseColor, int colorDelta, long key) {
+            this.colors = new Color[PALETTE_SIZE];
+            this.renderables = new Renderable[PALETTE_SIZE];
+            SplittableRandom random = new SplittableRandom(key);
+            for (int i = 0; i < PALETTE_SIZE; i++) {
+                colors[i] = ColorSupplier.approximateColor(baseColor, colorDelta, random);
+                renderables[i] = new RectangleRenderable(colors[i]);
+            }
+        }
+    }
+}
@@ -1,39 +1,28 @@
 package pepse.util;
 
 import java.awt.*;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Provides procedurally-generated colors around a pivot.
  * @author Dan Nirel
  */
 public final class ColorSupplier {
-    private static final int DEFAULT_COLOR_DELTA = 10;
-    private final static Random random = new Random();
-
-    /**
-     * Returns a color similar to baseColor, with a default delta.
-     *
-     * @param baseColor A color that we wish to approximate.
-     * @return A color similar to baseColor.
-     */
-    public static Color approximateColor(Color baseColor) {
-        return approximateColor(baseColor, DEFAULT_COLOR_DELTA);
-    }
-
     /**
-     * Returns a color similar to baseColor, with a difference of at most colorDelta.
+     * Returns a color similar to baseColor, with a difference of at most colorDelta, drawn from
+     * the given random generator.
      *
      * @param baseColor A color that we wish to approximate.
      * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random The random generator the channels are drawn from.
      * @return A color similar to baseColor.
      */
-    public static Color approximateColor(Color baseColor, int colorDelta) {
+    public static Color approximateColor(Color baseColor, int colorDelta, RandomGenerator random) {
 
         return new Color(
-                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
-                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
-                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
+                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta, random),
+                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta, random),
+                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta, random));
     }
 
     /**
@@ -41,9 +30,10 @@ public final class ColorSupplier {
      *
      * @param min The lower bound of the given range.
      * @param max The upper bound of the given range.
+     * @param random The random generator the value is drawn from.
      * @return A random number in the range [min, max], clipped to [0,255].
      */
-    private static int randomChannelInRange(int min, int max) {
+    private static int randomChannelInRange(int min, int max, RandomGenerator random) {
         int channel = random.nextInt(max-min+1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
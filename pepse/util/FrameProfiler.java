@@ -0,0 +1,324 @@
+package pepse.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Measures where frame time goes on the game thread: the time between two consecutive updates,
+ * the part of it spent in the update itself, and the rate the game thread allocates memory at.
+ * The measurements cover a rolling window of recent frames, and can be recorded once a second,
+ * along with a set of counters, to a rolling CSV file.
+ */
+public class FrameProfiler {
+
+    /**
+     * The number of recent frames the measurements cover. It is a constant (static final).
+     */
+    private static final int WINDOW_FRAMES = 300;
+
+    /**
+     * The wall-clock time between two allocation rate samples and two recorded rows, in
+     * nanoseconds. It is a constant (static final).
+     */
+    private static final long SAMPLE_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * The number of rows a CSV file holds before it is rolled over. It is a constant
+     * (static final).
+     */
+    private static final int MAX_CSV_ROWS = 3600;
+
+    /**
+     * The suffix of the previous CSV file, which a full CSV file is rolled over to.
+     * It is a constant (static final).
+     */
+    private static final String ROLLED_CSV_SUFFIX = ".1";
+
+    /**
+     * The header of the measurement columns of the CSV file. It is a constant (static final).
+     */
+    private static final String CSV_HEADER =
+            "time_s,avg_frame_ms,p99_frame_ms,avg_update_ms,avg_rest_ms,alloc_bytes_per_s";
+
+    /**
+     * The number of nanoseconds in a millisecond. It is a constant (static final).
+     */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * The number of nanoseconds in a second. It is a constant (static final).
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Supplier<Map<String, Long>> counters;
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private final long[] frameNanos;
+    private final long[] updateNanos;
+    private final long startNanos;
+    private int nextFrame;
+    private int frameCount;
+    private long updateStart;
+    private long pendingFrameNanos;
+    private long lastSampleNanos;
+    private long lastAllocatedBytes;
+    private double allocatedBytesPerSecond;
+    private Path csvFile;
+    private BufferedWriter csvWriter;
+    private int csvRows;
+    private String recordingError;
+
+    /**
+     * Constructs a frame profiler.
+     * @param counters Supplies the counters recorded with every CSV row, always with the same
+     *                 names in the same order.
+     */
+    public FrameProfiler(Supplier<Map<String, Long>> counters) {
+        this.counters = counters;
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            this.allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.allocationBean = null;
+        }
+        this.frameNanos = new long[WINDOW_FRAMES];
+        this.updateNanos = new long[WINDOW_FRAMES];
+        this.startNanos = System.nanoTime();
+        this.lastSampleNanos = startNanos;
+        this.lastAllocatedBytes = allocatedBytes();
+    }
+
+    /**
+     * Marks the start of an update. The time since the start of the previous update is the
+     * duration of the previous frame.
+     */
+    public void beginUpdate() {
+        long now = System.nanoTime();
+        if (updateStart != 0) {
+            pendingFrameNanos = now - updateStart;
+        }
+        updateStart = now;
+    }
+
+    /**
+     * Marks the end of an update, completing the measurement of the previous frame, and samples
+     * the allocation rate and records a CSV row once a second.
+     */
+    public void endUpdate() {
+        long now = System.nanoTime();
+        if (pendingFrameNanos != 0) {
+            frameNanos[nextFrame] = pendingFrameNanos;
+            updateNanos[nextFrame] = now - updateStart;
+            nextFrame = (nextFrame + 1) % WINDOW_FRAMES;
+            frameCount = Math.min(frameCount + 1, WINDOW_FRAMES);
+            pendingFrameNanos = 0;
+        }
+        if (now - lastSampleNanos >= SAMPLE_INTERVAL_NANOS) {
+            long allocated = allocatedBytes();
+            allocatedBytesPerSecond = (allocated - lastAllocatedBytes) * NANOS_PER_SECOND /
+                    (now - lastSampleNanos);
+            lastAllocatedBytes = allocated;
+            lastSampleNanos = now;
+            if (csvWriter != null) {
+                writeCsvRow(now);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the average frame time of the recent frames.
+     * @return The average frame time, in milliseconds.
+     */
+    public double getAverageFrameMillis() {
+        return average(frameNanos) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Retrieves the 99th percentile frame time of the recent frames.
+     * @return The 99th percentile frame time, in milliseconds.
+     */
+    public double getP99FrameMillis() {
+        if (frameCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(frameNanos, frameCount);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(0.99 * frameCount) - 1] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Retrieves the average time of the recent frames spent in the update.
+     * @return The average update time, in milliseconds.
+     */
+    public double getAverageUpdateMillis() {
+        return average(updateNanos) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Retrieves the average time of the recent frames spent outside the update: rendering, and
+     * waiting for the next frame.
+     * @return The average time outside the update, in milliseconds.
+     */
+    public double getAverageRestMillis() {
+        return getAverageFrameMillis() - getAverageUpdateMillis();
+    }
+
+    /**
+     * Retrieves the rate the game thread allocated memory at over the last second.
+     * @return The allocation rate in bytes per second, or 0 if the JVM cannot measure it.
+     */
+    public double getAllocatedBytesPerSecond() {
+        return allocatedBytesPerSecond;
+    }
+
+    /**
+     * Checks whether the profiler is recording to a CSV file.
+     * @return True if the profiler is recording.
+     */
+    public boolean isRecording() {
+        return csvWriter != null;
+    }
+
+    /**
+     * Retrieves the error that stopped the last recording, such as a CSV file that cannot be
+     * written to, so that it can be shown instead of crashing the game.
+     * @return The error, or null if the last recording has not failed.
+     */
+    public String getRecordingError() {
+        return recordingError;
+    }
+
+    /**
+     * Starts recording a row of the measurements and counters once a second to the given CSV
+     * file. A full file is rolled over to a file of the same name with a ".1" suffix. If the file
+     * cannot be opened or written to, the recording stops and the error is kept, as returned by
+     * {@link #getRecordingError}.
+     * @param file The path of the CSV file.
+     */
+    public void startRecording(Path file) {
+        stopRecording();
+        this.csvFile = file;
+        this.recordingError = null;
+        try {
+            openCsv();
+        } catch (IOException e) {
+            failRecording(e);
+        }
+    }
+
+    /**
+     * Stops recording, closing the CSV file.
+     */
+    public void stopRecording() {
+        if (csvWriter == null) {
+            return;
+        }
+        try {
+            csvWriter.close();
+        } catch (IOException e) {
+            recordingError = describe(e);
+        } finally {
+            csvWriter = null;
+        }
+    }
+
+    /*
+     * Opens the CSV file, replacing its contents with the header row.
+     * @throws IOException If the file cannot be opened or written to.
+     */
+    private void openCsv() throws IOException {
+        csvWriter = Files.newBufferedWriter(csvFile);
+        StringBuilder header = new StringBuilder(CSV_HEADER);
+        for (String name : counters.get().keySet()) {
+            header.append(',').append(name);
+        }
+        csvWriter.write(header.toString());
+        csvWriter.newLine();
+        csvRows = 0;
+    }
+
+    /*
+     * Stops a recording that failed, keeping its error.
+     * @param e The error the recording failed with.
+     */
+    private void failRecording(IOException e) {
+        stopRecording();
+        recordingError = describe(e);
+    }
+
+    /*
+     * Describes an error of the CSV file in a single line.
+     * @param e The error.
+     * @return  The description of the error.
+     */
+    private static String describe(IOException e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() :
+                e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    /*
+     * Writes a row of the measurements and counters to the CSV file, rolling the file over if it
+     * is full.
+     * @param now The current time, in nanoseconds.
+     */
+    private void writeCsvRow(long now) {
+        try {
+            if (csvRows == MAX_CSV_ROWS) {
+                csvWriter.close();
+                Files.move(csvFile, Paths.get(csvFile + ROLLED_CSV_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING);
+                openCsv();
+            }
+            StringBuilder row = new StringBuilder();
+            row.append(String.format(Locale.ROOT, "%.3f,%.3f,%.3f,%.3f,%.3f,%.0f",
+                    (now - startNanos) / NANOS_PER_SECOND, getAverageFrameMillis(),
+                    getP99FrameMillis(), getAverageUpdateMillis(), getAverageRestMillis(),
+                    allocatedBytesPerSecond));
+            for (long counter : counters.get().values()) {
+                row.append(',').append(counter);
+            }
+            csvWriter.write(row.toString());
+            csvWriter.newLine();
+            csvWriter.flush();
+            csvRows++;
+        } catch (IOException e) {
+            failRecording(e);
+        }
+    }
+
+    /*
+     * Retrieves the bytes the game thread has allocated so far.
+     * @return The allocated bytes, or 0 if the JVM cannot measure them.
+     */
+    private long allocatedBytes() {
+        return allocationBean == null ? 0 : allocationBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /*
+     * Averages the measurements of the recent frames in a ring of measurements. The ring fills
+     * up from its start, so the recent frames are always its first frameCount entries.
+     * @param ring The ring of measurements.
+     * @return     The average of the recent measurements, in nanoseconds.
+     */
+    private double average(long[] ring) {
+        if (frameCount == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < frameCount; i++) {
+            sum += ring[i];
+        }
+        return (double) sum / frameCount;
+    }
+}
@@ -3,11 +3,38 @@ package pepse.util;
 import java.util.Random;
 
 public class NoiseGenerator {
+
+    /**
+     * The noise kernels a NoiseGenerator can sample each octave with.
+     */
+    public enum Kernel {
+        /**
+         * Full 3D Perlin noise, sampled at y=0 and z=0.
+         */
+        PERLIN_3D,
+        /**
+         * Perlin noise specialized to the line the 3D kernel is sampled on: 2 gradients and
+         * 1 lerp per octave. For an integral seed it produces exactly the same noise as
+         * PERLIN_3D; for any other seed the generator falls back to PERLIN_3D.
+         */
+        PERLIN_1D
+    }
+
+    /**
+     * The maximal number of samples of a float batch computed at once. It is a constant
+     * (static final).
+     */
+    private static final int FLOAT_RANGE_BLOCK = 64;
+
     private double seed;
     private long default_size;
     private int[] p;
     private int[] permutation;
     private double startPoint;
+    private double[] octaves;
+    private boolean use1DKernel;
+    private double[] leftGradients;
+    private double[] rightGradients;
 
     /**
      * The constructor of the NoiseGenerator class.
@@ -22,9 +49,25 @@ public class NoiseGenerator {
      *
      */
     public NoiseGenerator(double seed, int startPoint) {
+        this(seed, startPoint, Kernel.PERLIN_3D);
+    }
+
+    /**
+     * A constructor of the NoiseGenerator class that also selects the noise kernel.
+     *
+     * @param seed the basis of the random generator, as in NoiseGenerator(seed, startPoint).
+     * @param startPoint the relative point the noise is generated from, as in
+     *                   NoiseGenerator(seed, startPoint).
+     * @param kernel the kernel each octave is sampled with.
+     */
+    public NoiseGenerator(double seed, int startPoint, Kernel kernel) {
         this.seed = seed;
         this.startPoint = startPoint;
         init();
+        this.use1DKernel = kernel == Kernel.PERLIN_1D && seed == Math.floor(seed);
+        if (use1DKernel) {
+            init1DKernel();
+        }
     }
 
     private void init() {
@@ -57,6 +100,46 @@ public class NoiseGenerator {
             p[256 + i] = p[i] = permutation[i];
         }
 
+        // Precompute the octave schedule, halving the point until it drops below 1.
+        int numOfOctaves = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            numOfOctaves++;
+        }
+        this.octaves = new double[numOfOctaves];
+        double currentPoint = startPoint;
+        for (int i = 0; i < numOfOctaves; i++) {
+            octaves[i] = currentPoint;
+            currentPoint /= 2.0;
+        }
+    }
+
+    /*
+     * Precomputes the 1D kernel's gradients. With an integral seed, y is a whole number and z
+     * is 0 in every 3D sample, so only the two corners on the x edge of the cube contribute,
+     * and each of their gradients reduces to +x, -x or 0.
+     */
+    private void init1DKernel() {
+        int Y = (int) Math.floor(this.seed) & 255;
+        this.leftGradients = new double[256];
+        this.rightGradients = new double[256];
+        for (int X = 0; X < 256; X++) {
+            leftGradients[X] = gradientCoefficient(p[p[p[X] + Y]]);
+            rightGradients[X] = gradientCoefficient(p[p[p[X + 1] + Y]]);
+        }
+    }
+
+    /*
+     * Returns the coefficient c for which grad(hash, x, 0, 0) == c * x.
+     */
+    private static double gradientCoefficient(int hash) {
+        int h = hash & 15;
+        if (h < 8) {
+            return (h & 1) == 0 ? 1 : -1;
+        }
+        if (h == 12 || h == 14) {
+            return (h & 2) == 0 ? 1 : -1;
+        }
+        return 0;
     }
 
     /**
@@ -75,16 +158,126 @@ public class NoiseGenerator {
      */
     public double noise(double x, double factor) {
         double value = 0.0;
-        double currentPoint = startPoint;
 
-        while (currentPoint >= 1) {
-            value += smoothNoise((x / currentPoint), 0, 0) * currentPoint;
-            currentPoint /= 2.0;
+        for (double currentPoint : octaves) {
+            double octaveNoise = use1DKernel ? smoothNoise1D(x / currentPoint) :
+                    smoothNoise((x / currentPoint), 0, 0);
+            value += octaveNoise * currentPoint;
         }
 
         return value * factor / startPoint;
     }
 
+    /**
+     * Fills out with the noise of count evenly spaced x values, starting at startX. Every
+     * out[i] is exactly noise(startX + i * step, factor), but the octave schedule and the
+     * lattice hashes are shared across the batch, and nothing is allocated.
+     *
+     * @param startX the first x to receive noise for.
+     * @param step the distance between two consecutive x values.
+     * @param count the number of x values to receive noise for.
+     * @param factor describes how large the noise should be, as in noise(x, factor).
+     * @param out the array the noise is written to, at indices 0 to count - 1.
+     */
+    public void noiseRange(double startX, double step, int count, double factor, double[] out) {
+        noiseRange(startX, step, 0, count, factor, out);
+    }
+
+    /**
+     * Fills out with the noise of count evenly spaced x values, starting at startX, as floats,
+     * such as for height maps kept as floats. Every out[i] is exactly
+     * (float) noise(startX + i * step, factor). The batch is computed in blocks of at most
+     * FLOAT_RANGE_BLOCK samples, through a single scratch block of doubles.
+     *
+     * @param startX the first x to receive noise for.
+     * @param step the distance between two consecutive x values.
+     * @param count the number of x values to receive noise for.
+     * @param factor describes how large the noise should be, as in noise(x, factor).
+     * @param out the array the noise is written to, at indices 0 to count - 1.
+     */
+    public void noiseRange(double startX, double step, int count, double factor, float[] out) {
+        double[] block = new double[Math.min(count, FLOAT_RANGE_BLOCK)];
+        for (int first = 0; first < count; first += block.length) {
+            int blockCount = Math.min(block.length, count - first);
+            noiseRange(startX, step, first, blockCount, factor, block);
+            for (int i = 0; i < blockCount; i++) {
+                out[first + i] = (float) block[i];
+            }
+        }
+    }
+
+    /*
+     * Fills out with the noise of the count x values startX + (first + i) * step, for i from 0
+     * to count - 1, sharing the octave schedule and the lattice hashes across the batch.
+     */
+    private void noiseRange(double startX, double step, int first, int count, double factor,
+                            double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = 0.0;
+        }
+        for (double currentPoint : octaves) {
+            if (use1DKernel) {
+                for (int i = 0; i < count; i++) {
+                    out[i] += smoothNoise1D((startX + (first + i) * step) / currentPoint) *
+                            currentPoint;
+                }
+            } else {
+                smoothNoiseOctave(startX, step, first, count, currentPoint, out);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            out[i] = out[i] * factor / startPoint;
+        }
+    }
+
+    /*
+     * Adds a single octave of smooth noise at y=0 and z=0 to every sample of a batch. The
+     * corner hashes only change when a sample enters a new unit cube, so they are kept between
+     * consecutive samples instead of being looked up again.
+     */
+    private void smoothNoiseOctave(double startX, double step, int first, int count,
+                                   double currentPoint, double[] out) {
+        double y = this.seed;
+        double z = 0;
+        int Y = (int) Math.floor(y) & 255;
+        int Z = (int) Math.floor(z) & 255;
+        y -= Math.floor(y);
+        z -= Math.floor(z);
+        double v = fade(y);
+        double w = fade(z);
+
+        int lastX = -1;
+        int AA = 0, AB = 0, BA = 0, BB = 0;
+        for (int i = 0; i < count; i++) {
+            double x = (startX + (first + i) * step) / currentPoint;
+            x += this.seed;
+            x += this.seed;
+            int X = (int) Math.floor(x) & 255;
+            if (X != lastX) {
+                int A = p[X] + Y;
+                AA = p[A] + Z;
+                AB = p[A + 1] + Z;
+                int B = p[X + 1] + Y;
+                BA = p[B] + Z;
+                BB = p[B + 1] + Z;
+                lastX = X;
+            }
+            x -= Math.floor(x);
+            out[i] += blend(x, y, z, fade(x), v, w, AA, AB, BA, BB) * currentPoint;
+        }
+    }
+
+
+    private double smoothNoise1D(double x) {
+        // Offset x by the seed exactly as the 3D kernel does
+        x += this.seed;
+        x += this.seed;
+
+        int X = (int) Math.floor(x) & 255;
+        x -= Math.floor(x);
+
+        return lerp(fade(x), leftGradients[X] * x, rightGradients[X] * (x - 1));
+    }
 
     private double smoothNoise(double x, double y, double z) {
         // Offset each coordinate by the seed value
@@ -111,6 +304,11 @@ public class NoiseGenerator {
         int BA = p[B] + Z;
         int BB = p[B + 1] + Z; // THE 8 CUBE CORNERS,
 
+        return blend(x, y, z, u, v, w, AA, AB, BA, BB);
+    }
+
+    private double blend(double x, double y, double z, double u, double v, double w,
+                         int AA, int AB, int BA, int BB) {
         return lerp(w, lerp(v, lerp(u, grad(p[AA], x, y, z),    // AND ADD
                                 grad(p[BA], x - 1, y, z)), // BLENDED
                         lerp(u, grad(p[AB], x, y - 1, z),    // RESULTS
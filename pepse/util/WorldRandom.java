@@ -0,0 +1,67 @@
+package pepse.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent, reproducible random generators from the world seed and a coordinate, so
+ * that any part of the world can be dropped and regenerated bit-for-bit on demand.
+ */
+public final class WorldRandom {
+
+    /**
+     * The salt of the generators of the terrain's ground colors. It is a constant (static final).
+     */
+    public static final long TERRAIN_SALT = 0x7E77A1L;
+
+    /**
+     * The salt of the generators of the flora. It is a constant (static final).
+     */
+    public static final long FLORA_SALT = 0xF1047AL;
+
+    /**
+     * The odd constant of the golden ratio, used to step between hashed inputs.
+     * It is a constant (static final).
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /*
+     * Private constructor to prevent instantiation.
+     */
+    private WorldRandom() {}
+
+    /**
+     * Creates the random generator of a coordinate of the world. The same seed, salt and
+     * coordinate always give the same sequence of values.
+     * @param seed          The seed of the world.
+     * @param salt          Separates the generators of different generation steps.
+     * @param coordinate    The coordinate, usually the x-coordinate of a column.
+     * @return              A new random generator of the coordinate.
+     */
+    public static SplittableRandom at(long seed, long salt, long coordinate) {
+        return new SplittableRandom(hash(seed, salt, coordinate));
+    }
+
+    /**
+     * Hashes a seed, salt and coordinate into a well-mixed 64-bit value.
+     * @param seed          The seed of the world.
+     * @param salt          Separates the hashes of different generation steps.
+     * @param coordinate    The coordinate.
+     * @return              The hash of the three values.
+     */
+    public static long hash(long seed, long salt, long coordinate) {
+        long h = mix(seed + GOLDEN_GAMMA);
+        h = mix(h ^ (salt + GOLDEN_GAMMA));
+        return mix(h ^ (coordinate + GOLDEN_GAMMA));
+    }
+
+    /*
+     * The finalizer of SplitMix64: scrambles every input bit into every output bit.
+     * @param z The value to mix.
+     * @return  The mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,47 @@
+package pepse.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event of the generation of the trees of a range of terrain.
+ */
+@Name("pepse.FloraGeneration")
+@Label("Flora Generation")
+@Category({"Pepse", "World"})
+@Description("Generation of the trees of a range of terrain")
+public class FloraGenerationEvent extends Event {
+
+    /**
+     * The minimum x-coordinate of the range.
+     */
+    @Label("Min X")
+    public int minX;
+
+    /**
+     * The maximum x-coordinate of the range.
+     */
+    @Label("Max X")
+    public int maxX;
+
+    /**
+     * The number of trees generated.
+     */
+    @Label("Tree Count")
+    public int treeCount;
+
+    /**
+     * The number of leaves generated.
+     */
+    @Label("Leaf Count")
+    public int leafCount;
+
+    /**
+     * The number of fruits generated.
+     */
+    @Label("Fruit Count")
+    public int fruitCount;
+}
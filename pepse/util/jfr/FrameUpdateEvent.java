@@ -0,0 +1,25 @@
+package pepse.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event of a single update of the game.
+ */
+@Name("pepse.FrameUpdate")
+@Label("Frame Update")
+@Category({"Pepse", "Frame"})
+@Description("A single update of the game")
+public class FrameUpdateEvent extends Event {
+
+    /**
+     * The game time the update advanced by, in nanoseconds.
+     */
+    @Label("Delta Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long deltaTime;
+}
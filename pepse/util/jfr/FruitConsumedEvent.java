@@ -0,0 +1,35 @@
+package pepse.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event of the avatar eating a fruit.
+ */
+@Name("pepse.FruitConsumed")
+@Label("Fruit Consumed")
+@Category({"Pepse", "Gameplay"})
+@Description("The avatar ate a fruit")
+public class FruitConsumedEvent extends Event {
+
+    /**
+     * The x-coordinate of the fruit's center.
+     */
+    @Label("X")
+    public float x;
+
+    /**
+     * The y-coordinate of the fruit's center.
+     */
+    @Label("Y")
+    public float y;
+
+    /**
+     * The energy the fruit gave.
+     */
+    @Label("Energy")
+    public double energy;
+}
@@ -0,0 +1,23 @@
+package pepse.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event of the dispatch of a jump of the avatar to the observers around it.
+ */
+@Name("pepse.JumpDispatch")
+@Label("Jump Dispatch")
+@Category({"Pepse", "Gameplay"})
+@Description("Dispatch of a jump of the avatar to the observers around it")
+public class JumpDispatchEvent extends Event {
+
+    /**
+     * The number of observers within the dispatch radius that were notified of the jump.
+     */
+    @Label("Observer Count")
+    public int observerCount;
+}
@@ -0,0 +1,36 @@
+package pepse.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event of the generation of the ground of a range of terrain, as blocks or
+ * as a tile map.
+ */
+@Name("pepse.TerrainGeneration")
+@Label("Terrain Generation")
+@Category({"Pepse", "World"})
+@Description("Generation of the ground of a range of terrain")
+public class TerrainGenerationEvent extends Event {
+
+    /**
+     * The minimum x-coordinate of the range.
+     */
+    @Label("Min X")
+    public int minX;
+
+    /**
+     * The maximum x-coordinate of the range.
+     */
+    @Label("Max X")
+    public int maxX;
+
+    /**
+     * The number of ground blocks, or ground cells of the tile map, generated.
+     */
+    @Label("Block Count")
+    public int blockCount;
+}
@@ -57,12 +57,14 @@ public class Avatar extends GameObject {
     private static final double JUMP_ENERGY = 10;
 
     /**
-     * The energy consumed when the avatar moves horizontally. It is a constant (static final).
+     * The energy consumed per simulation tick when the avatar moves horizontally. It is a
+     * constant (static final).
      */
     private static final double MOVE_ENERGY = 0.5;
 
     /**
-     * The energy consumed when the avatar is idle. It is a constant (static final).
+     * The energy restored per simulation tick when the avatar is idle. It is a constant
+     * (static final).
      */
     private static final double IDLE_ENERGY = 1;
 
@@ -164,8 +166,8 @@ public class Avatar extends GameObject {
     }
 
     /**
-     * Updates the avatar's state based on user input and physics.
-     * @param deltaTime The time elapsed since the last update.
+     * Updates the avatar's state based on user input and physics, once per simulation tick.
+     * @param deltaTime The fixed time step of a simulation tick.
      */
     @Override
     public void update(float deltaTime) {
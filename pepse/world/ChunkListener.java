@@ -0,0 +1,24 @@
+package pepse.world;
+
+/**
+ * An interface for objects that stream their own content along with the terrain chunks.
+ */
+public interface ChunkListener {
+
+    /**
+     * Called on a chunk generation worker, before the terrain of a chunk is loaded, to generate
+     * the listener's own content of the chunk. It must not touch the game itself.
+     * @param chunkIndex    The index of the chunk.
+     * @param minX          The minimum x-coordinate of the chunk.
+     * @param maxX          The maximum x-coordinate of the chunk.
+     * @return              The action that adds the generated content to the game, which is
+     *                      run on the game thread right after the terrain of the chunk is loaded.
+     */
+    Runnable prepareChunk(int chunkIndex, int minX, int maxX);
+
+    /**
+     * Called before the terrain of a chunk is retired.
+     * @param chunkIndex The index of the chunk.
+     */
+    void onChunkUnloaded(int chunkIndex);
+}
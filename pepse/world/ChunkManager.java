@@ -0,0 +1,495 @@
+package pepse.world;
+
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Streams the terrain in fixed-width chunks around a moving point (usually the camera center),
+ * loading chunks ahead of it and retiring chunks that fall far behind it. Chunks are generated
+ * on a worker executor, nearest first in the direction of travel, and handed back to the game
+ * thread through a lock-free queue that is drained within a per-frame time budget.
+ */
+public class ChunkManager {
+
+    /**
+     * The number of block columns in a single chunk. It is a constant (static final).
+     */
+    public static final int CHUNK_COLUMNS = 16;
+
+    /**
+     * The width of a single chunk in pixels. It is a constant (static final).
+     */
+    public static final int CHUNK_WIDTH = CHUNK_COLUMNS * Block.SIZE;
+
+    /**
+     * The number of extra chunks kept beyond the edge of the load distance before a chunk is
+     * retired, so that walking back and forth on a chunk border does not thrash.
+     * It is a constant (static final).
+     */
+    private static final int RETIRE_MARGIN_CHUNKS = 1;
+
+    /**
+     * The number of retired chunks whose baked ground is kept cached, so that walking back
+     * into them does not bake them again. It is a constant (static final).
+     */
+    private static final int CACHED_RETIRED_CHUNKS = 4;
+
+    /**
+     * The number of chunks on either side of the center chunk whose exposed surface is
+     * materialized as real blocks, which collide in place of the chunk's ground colliders.
+     * It is a constant (static final).
+     */
+    private static final int SURFACE_RADIUS_CHUNKS = 1;
+
+    /**
+     * The number of ground cells from the top of every column that are materialized as real
+     * blocks. It is a constant (static final).
+     */
+    private static final int SURFACE_DEPTH = 2;
+
+    /**
+     * The number of chunks beyond the load distance that are generated ahead of the direction of
+     * travel. It is at most the retire margin, so that they are not retired right away.
+     * It is a constant (static final).
+     */
+    private static final int PREFETCH_CHUNKS = RETIRE_MARGIN_CHUNKS;
+
+    /**
+     * The time the game thread spends per frame adding generated chunks to the game, in
+     * nanoseconds. Chunks that are about to become visible are added regardless.
+     * It is a constant (static final).
+     */
+    private static final long INSTALL_BUDGET_NANOS = 2_000_000;
+
+    private final Terrain terrain;
+    private final int blockLayer;
+    private final int colliderLayer;
+    private final BiConsumer<GameObject, Integer> addObject;
+    private final BiConsumer<GameObject, Integer> removeObject;
+    private final Executor generationExecutor;
+    private final int loadDistanceChunks;
+    private final int visibleDistanceChunks;
+    private final Map<Integer, Chunk> loadedChunks;
+    private final Map<Integer, PendingChunk> pendingChunks;
+    private final ConcurrentLinkedQueue<GeneratedChunk> generatedChunks;
+    private final Map<Integer, BakedGround> bakedGroundCache;
+    private final List<ChunkListener> chunkListeners;
+    private float lastCenterX;
+    private int travelDirection;
+    private int nextRequestToken;
+    private int failedChunkCount;
+
+    /**
+     * Constructs a chunk manager for the given terrain, which generates its chunks on the thread
+     * that updates it.
+     * @param terrain       The terrain the chunks are generated from.
+     * @param blockLayer    The layer the visible ground (blocks or baked images) is added to.
+     * @param colliderLayer The layer the terrain's ground colliders are added to.
+     * @param addObject     Adds a game object to the given layer.
+     * @param removeObject  Removes a game object from the given layer.
+     * @param viewWidth     The width of the visible area, used to decide how far ahead to load.
+     */
+    public ChunkManager(Terrain terrain, int blockLayer, int colliderLayer,
+                        BiConsumer<GameObject, Integer> addObject,
+                        BiConsumer<GameObject, Integer> removeObject, float viewWidth) {
+        this(terrain, blockLayer, colliderLayer, addObject, removeObject, viewWidth, Runnable::run);
+    }
+
+    /**
+     * Constructs a chunk manager for the given terrain, which generates its chunks on the given
+     * executor.
+     * @param terrain               The terrain the chunks are generated from.
+     * @param blockLayer            The layer the visible ground (blocks or baked images) is added
+     *                              to.
+     * @param colliderLayer         The layer the terrain's ground colliders are added to.
+     * @param addObject             Adds a game object to the given layer.
+     * @param removeObject          Removes a game object from the given layer.
+     * @param viewWidth             The width of the visible area, used to decide how far ahead
+     *                              to load.
+     * @param generationExecutor    Runs the chunk generation tasks.
+     */
+    public ChunkManager(Terrain terrain, int blockLayer, int colliderLayer,
+                        BiConsumer<GameObject, Integer> addObject,
+                        BiConsumer<GameObject, Integer> removeObject, float viewWidth,
+                        Executor generationExecutor) {
+        this.terrain = terrain;
+        this.blockLayer = blockLayer;
+        this.colliderLayer = colliderLayer;
+        this.addObject = addObject;
+        this.removeObject = removeObject;
+        this.generationExecutor = generationExecutor;
+        this.loadDistanceChunks = (int) Math.ceil(viewWidth / CHUNK_WIDTH) + 1;
+        this.visibleDistanceChunks = (int) Math.ceil(viewWidth / 2 / CHUNK_WIDTH);
+        this.loadedChunks = new HashMap<>();
+        this.pendingChunks = new HashMap<>();
+        this.generatedChunks = new ConcurrentLinkedQueue<>();
+        this.chunkListeners = new CopyOnWriteArrayList<>();
+        this.lastCenterX = Float.NaN;
+        this.travelDirection = 1;
+        int bakedCacheCapacity = 2 * (loadDistanceChunks + RETIRE_MARGIN_CHUNKS) + 1
+                + CACHED_RETIRED_CHUNKS;
+        this.bakedGroundCache = new LinkedHashMap<>(bakedCacheCapacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BakedGround> eldest) {
+                return size() > bakedCacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Adds a listener that streams its own content along with the chunks. It is only told about
+     * chunks requested after it is added.
+     * @param listener The listener to add.
+     */
+    public void addChunkListener(ChunkListener listener) {
+        chunkListeners.add(listener);
+    }
+
+    /**
+     * Requests every chunk within the load distance of the given x-coordinate, and a few more
+     * ahead of the direction of travel, adds the generated chunks to the game within the frame's
+     * budget, waits for the chunks that are about to become visible, and retires chunks that are
+     * further away than the load distance plus a margin. A chunk whose generation failed is
+     * dropped and requested again on the next update.
+     * @param centerX The x-coordinate the world is streamed around.
+     */
+    public void update(float centerX) {
+        if (centerX != lastCenterX && !Float.isNaN(lastCenterX)) {
+            travelDirection = centerX > lastCenterX ? 1 : -1;
+        }
+        lastCenterX = centerX;
+        int centerChunk = chunkIndexAt(centerX);
+        for (int distance = 0; distance <= loadDistanceChunks + PREFETCH_CHUNKS; distance++) {
+            requestChunk(centerChunk + distance * travelDirection);
+            if (distance <= loadDistanceChunks) {
+                requestChunk(centerChunk - distance * travelDirection);
+            }
+        }
+        dropFailedChunks();
+        installGeneratedChunks(centerChunk);
+        for (int i = centerChunk - visibleDistanceChunks;
+             i <= centerChunk + visibleDistanceChunks; i++) {
+            PendingChunk pending = pendingChunks.get(i);
+            if (pending != null) {
+                GeneratedChunk generated = awaitChunk(pending);
+                pendingChunks.remove(i);
+                if (generated != null) {
+                    installChunk(generated);
+                }
+            }
+        }
+        int retireDistance = loadDistanceChunks + RETIRE_MARGIN_CHUNKS;
+        Iterator<Map.Entry<Integer, Chunk>> iterator = loadedChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Chunk> chunk = iterator.next();
+            if (Math.abs(chunk.getKey() - centerChunk) > retireDistance) {
+                for (ChunkListener listener : chunkListeners) {
+                    listener.onChunkUnloaded(chunk.getKey());
+                }
+                unloadChunk(chunk.getValue());
+                terrain.evictHeightMap(chunk.getKey());
+                iterator.remove();
+            }
+        }
+        updateSurfaces(centerChunk);
+    }
+
+    /**
+     * Retrieves the number of chunks currently loaded.
+     * @return The number of loaded chunks.
+     */
+    public int getLoadedChunkCount() {
+        return loadedChunks.size();
+    }
+
+    /**
+     * Retrieves the number of chunks requested but not yet added to the game.
+     * @return The number of pending chunks.
+     */
+    public int getPendingChunkCount() {
+        return pendingChunks.size();
+    }
+
+    /**
+     * Retrieves the number of chunks whose generation failed since the manager was constructed.
+     * Every one of them was requested again.
+     * @return The number of failed chunk generations.
+     */
+    public int getFailedChunkCount() {
+        return failedChunkCount;
+    }
+
+    /**
+     * Retrieves the index of the chunk containing the given x-coordinate.
+     * @param x The x-coordinate.
+     * @return  The index of the chunk containing x.
+     */
+    public static int chunkIndexAt(float x) {
+        return Math.floorDiv((int) Math.floor(x), CHUNK_WIDTH);
+    }
+
+    /*
+     * Submits the generation of a chunk, unless it is already loaded or pending. A baked chunk
+     * reuses its cached baked ground if there is one. The request is tagged with a token of its
+     * own, and the generated chunk is published to the queue the game thread drains.
+     * @param chunkIndex The index of the chunk to request.
+     */
+    private void requestChunk(int chunkIndex) {
+        if (loadedChunks.containsKey(chunkIndex) || pendingChunks.containsKey(chunkIndex)) {
+            return;
+        }
+        BakedGround cachedGround = bakedGroundCache.get(chunkIndex);
+        int token = nextRequestToken++;
+        CompletableFuture<GeneratedChunk> future = CompletableFuture.supplyAsync(
+                () -> generateChunk(chunkIndex, token, cachedGround), generationExecutor);
+        pendingChunks.put(chunkIndex, new PendingChunk(token, future));
+        future.thenAccept(generatedChunks::add);
+    }
+
+    /*
+     * Drops the pending chunks whose generation failed, so that they are requested again.
+     */
+    private void dropFailedChunks() {
+        Iterator<PendingChunk> iterator = pendingChunks.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().future.isCompletedExceptionally()) {
+                iterator.remove();
+                failedChunkCount++;
+            }
+        }
+    }
+
+    /*
+     * Waits for a pending chunk to be generated.
+     * @param pending The pending chunk.
+     * @return        The generated chunk, or null if its generation failed.
+     */
+    private GeneratedChunk awaitChunk(PendingChunk pending) {
+        GeneratedChunk generated = pending.future.handle((chunk, failure) -> chunk).join();
+        if (generated == null) {
+            failedChunkCount++;
+        }
+        return generated;
+    }
+
+    /*
+     * Adds generated chunks to the game until the frame's budget runs out. Chunks that were
+     * already added by waiting on them, and chunks of an earlier request than the pending one,
+     * such as of a chunk that was retired and requested again since, are dropped. Chunks that are
+     * no longer wanted are dropped too.
+     * @param centerChunk The index of the chunk the world is streamed around.
+     */
+    private void installGeneratedChunks(int centerChunk) {
+        long deadline = System.nanoTime() + INSTALL_BUDGET_NANOS;
+        int retireDistance = loadDistanceChunks + RETIRE_MARGIN_CHUNKS;
+        GeneratedChunk generated;
+        while (System.nanoTime() < deadline && (generated = generatedChunks.poll()) != null) {
+            PendingChunk pending = pendingChunks.get(generated.chunkIndex);
+            if (pending == null || pending.token != generated.token) {
+                continue;
+            }
+            pendingChunks.remove(generated.chunkIndex);
+            if (Math.abs(generated.chunkIndex - centerChunk) <= retireDistance) {
+                installChunk(generated);
+            } else {
+                terrain.evictHeightMap(generated.chunkIndex);
+            }
+        }
+    }
+
+    /*
+     * Generates the ground, the ground colliders and the listeners' content of a single chunk,
+     * without touching the game. Runs on the generation executor.
+     * @param chunkIndex    The index of the chunk to generate.
+     * @param token         The token of the request.
+     * @param cachedGround  The cached baked ground of the chunk, or null if there is none.
+     * @return              The generated chunk.
+     */
+    private GeneratedChunk generateChunk(int chunkIndex, int token, BakedGround cachedGround) {
+        int minX = chunkIndex * CHUNK_WIDTH;
+        terrain.cacheHeightMap(chunkIndex);
+        Chunk chunk;
+        BakedGround bakedGround = null;
+        if (terrain.getRenderMode() == Terrain.RenderMode.BAKED) {
+            bakedGround = cachedGround != null ? cachedGround : bakeGround(minX);
+            chunk = new Chunk(List.of(bakedGround.image), bakedGround.tiles,
+                    terrain.createCollidersInRange(minX, minX + CHUNK_WIDTH));
+        } else {
+            chunk = new Chunk(terrain.createInRange(minX, minX + CHUNK_WIDTH), null,
+                    terrain.createCollidersInRange(minX, minX + CHUNK_WIDTH));
+        }
+        List<Runnable> listenerContent = new ArrayList<>();
+        for (ChunkListener listener : chunkListeners) {
+            listenerContent.add(listener.prepareChunk(chunkIndex, minX, minX + CHUNK_WIDTH));
+        }
+        return new GeneratedChunk(chunkIndex, token, chunk, bakedGround, listenerContent);
+    }
+
+    /*
+     * Adds a generated chunk's ground and ground colliders to the game, and then the listeners'
+     * content.
+     * @param generated The generated chunk.
+     */
+    private void installChunk(GeneratedChunk generated) {
+        Chunk chunk = generated.chunk;
+        for (GameObject ground : chunk.ground) {
+            addObject.accept(ground, blockLayer);
+        }
+        for (GameObject collider : chunk.colliders) {
+            addObject.accept(collider, colliderLayer);
+        }
+        if (generated.bakedGround != null) {
+            bakedGroundCache.put(generated.chunkIndex, generated.bakedGround);
+        }
+        loadedChunks.put(generated.chunkIndex, chunk);
+        for (Runnable content : generated.listenerContent) {
+            content.run();
+        }
+    }
+
+    /*
+     * Generates the tile map of a single chunk and bakes its ground image from it.
+     * @param minX The x-coordinate of the left edge of the chunk.
+     * @return     The tile map and baked ground of the chunk.
+     */
+    private BakedGround bakeGround(int minX) {
+        TerrainTiles tiles = terrain.createTilesInRange(minX, minX + CHUNK_WIDTH);
+        return new BakedGround(tiles, terrain.createBaked(tiles));
+    }
+
+    /*
+     * Materializes the surface blocks of the tiled chunks within the surface radius of the
+     * center chunk as their colliders, in place of their ground colliders, and swaps the ground
+     * colliders back in for the chunks that left it.
+     * @param centerChunk The index of the chunk the world is streamed around.
+     */
+    private void updateSurfaces(int centerChunk) {
+        for (Map.Entry<Integer, Chunk> entry : loadedChunks.entrySet()) {
+            Chunk chunk = entry.getValue();
+            if (chunk.tiles == null) {
+                continue;
+            }
+            boolean nearCenter = Math.abs(entry.getKey() - centerChunk) <= SURFACE_RADIUS_CHUNKS;
+            if (nearCenter && chunk.surface == null) {
+                for (GameObject collider : chunk.colliders) {
+                    removeObject.accept(collider, colliderLayer);
+                }
+                chunk.surface = terrain.materializeSurface(chunk.tiles, SURFACE_DEPTH);
+                for (GameObject block : chunk.surface) {
+                    addObject.accept(block, colliderLayer);
+                }
+            } else if (!nearCenter && chunk.surface != null) {
+                removeSurface(chunk);
+                for (GameObject collider : chunk.colliders) {
+                    addObject.accept(collider, colliderLayer);
+                }
+            }
+        }
+    }
+
+    /*
+     * Removes the materialized surface blocks of a single chunk from the game.
+     * @param chunk The chunk whose surface blocks are removed.
+     */
+    private void removeSurface(Chunk chunk) {
+        for (GameObject block : chunk.surface) {
+            removeObject.accept(block, colliderLayer);
+        }
+        chunk.surface = null;
+    }
+
+    /*
+     * Removes the ground and either the surface blocks or the ground colliders of a single chunk
+     * from the game.
+     * @param chunk The chunk to unload.
+     */
+    private void unloadChunk(Chunk chunk) {
+        for (GameObject ground : chunk.ground) {
+            removeObject.accept(ground, blockLayer);
+        }
+        if (chunk.surface != null) {
+            removeSurface(chunk);
+        } else {
+            for (GameObject collider : chunk.colliders) {
+                removeObject.accept(collider, colliderLayer);
+            }
+        }
+    }
+
+    /*
+     * The game objects that make up a single loaded chunk, and its tile map if it is baked. The
+     * surface blocks are materialized only while the chunk is near the center, and while they are,
+     * they collide instead of the ground colliders, which are out of the game.
+     */
+    private static class Chunk {
+        private final List<? extends GameObject> ground;
+        private final TerrainTiles tiles;
+        private final List<GameObject> colliders;
+        private List<Block> surface;
+
+        private Chunk(List<? extends GameObject> ground, TerrainTiles tiles,
+                      List<GameObject> colliders) {
+            this.ground = ground;
+            this.tiles = tiles;
+            this.colliders = colliders;
+        }
+    }
+
+    /*
+     * A requested chunk that is not in the game yet: the token of the request and its generation.
+     */
+    private static class PendingChunk {
+        private final int token;
+        private final CompletableFuture<GeneratedChunk> future;
+
+        private PendingChunk(int token, CompletableFuture<GeneratedChunk> future) {
+            this.token = token;
+            this.future = future;
+        }
+    }
+
+    /*
+     * A chunk generated by a worker and waiting for the game thread to add it to the game.
+     */
+    private static class GeneratedChunk {
+        private final int chunkIndex;
+        private final int token;
+        private final Chunk chunk;
+        private final BakedGround bakedGround;
+        private final List<Runnable> listenerContent;
+
+        private GeneratedChunk(int chunkIndex, int token, Chunk chunk, BakedGround bakedGround,
+                               List<Runnable> listenerContent) {
+            this.chunkIndex = chunkIndex;
+            this.token = token;
+            this.chunk = chunk;
+            this.bakedGround = bakedGround;
+            this.listenerContent = listenerContent;
+        }
+    }
+
+    /*
+     * The tile map of a baked chunk and the game object drawing it, cached together so that the
+     * materialized surface blocks always match the colors of the baked image.
+     */
+    private static class BakedGround {
+        private final TerrainTiles tiles;
+        private final GameObject image;
+
+        private BakedGround(TerrainTiles tiles, GameObject image) {
+            this.tiles = tiles;
+            this.image = image;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package pepse.world;
+
+import danogl.collisions.Layer;
+
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Declares the layers of the game and which of them collide with each other. Only the pairs in
+ * the collision matrix are tested by the engine: the avatar against the ground colliders and
+ * stumps, and the avatar against the fruit.
+ */
+public final class GameLayers {
+
+    /**
+     * The layer of the sky. It is a constant (static final).
+     */
+    public static final int SKY = Layer.BACKGROUND;
+
+    /**
+     * The layer of the sun and its halo. It is a constant (static final).
+     */
+    public static final int SUN = Layer.BACKGROUND + 1;
+
+    /**
+     * The layer of the immovable ground colliders and stumps that are away from every moving
+     * object. It is a constant (static final).
+     */
+    public static final int STATIC_IDLE = Layer.STATIC_OBJECTS - 1;
+
+    /**
+     * The layer of the ground colliders and stumps (and of the ground blocks, when they collide
+     * themselves). It is a constant (static final).
+     */
+    public static final int GROUND = Layer.STATIC_OBJECTS;
+
+    /**
+     * The layer of the purely visual terrain ground. It is a constant (static final).
+     */
+    public static final int TERRAIN_VISUAL = Layer.STATIC_OBJECTS + 1;
+
+    /**
+     * The layer of the leaves. It is a constant (static final).
+     */
+    public static final int LEAVES = Layer.DEFAULT - 2;
+
+    /**
+     * The layer of the fruit. It is a constant (static final).
+     */
+    public static final int FRUIT = Layer.DEFAULT - 1;
+
+    /**
+     * The layer of the avatar. It is a constant (static final).
+     */
+    public static final int AVATAR = Layer.DEFAULT;
+
+    /**
+     * The layer of the night overlay. It is a constant (static final).
+     */
+    public static final int NIGHT = Layer.FOREGROUND;
+
+    /**
+     * The layer of the user interface. It is a constant (static final).
+     */
+    public static final int UI = Layer.UI;
+
+    /**
+     * Every layer of the game. It is a constant (static final).
+     */
+    private static final int[] ALL_LAYERS = {SKY, SUN, STATIC_IDLE, GROUND, TERRAIN_VISUAL, LEAVES,
+            FRUIT, AVATAR, NIGHT, UI};
+
+    /**
+     * The name of every layer of the game, in the same order. It is a constant (static final).
+     */
+    private static final String[] LAYER_NAMES = {"sky", "sun", "static_idle", "ground",
+            "terrain_visual", "leaves", "fruit", "avatar", "night", "ui"};
+
+    /**
+     * The pairs of layers that collide with each other. It is a constant (static final).
+     */
+    private static final int[][] COLLIDING_PAIRS = {{AVATAR, GROUND}, {AVATAR, FRUIT}};
+
+    /**
+     * An interface for setting whether two layers collide, such as the engine's layer manager.
+     */
+    public interface LayerCollisionSetter {
+
+        /**
+         * Sets whether the objects of two layers collide with each other.
+         * @param layer1        The first layer.
+         * @param layer2        The second layer.
+         * @param shouldCollide Whether the layers collide.
+         */
+        void shouldLayersCollide(int layer1, int layer2, boolean shouldCollide);
+    }
+
+    /*
+     * Private constructor to prevent instantiation.
+     */
+    private GameLayers() {}
+
+    /**
+     * Applies the collision matrix: every pair of game layers (including a layer with itself)
+     * collides if and only if it is one of the colliding pairs.
+     * @param setter Sets whether two layers collide.
+     */
+    public static void applyCollisionMatrix(LayerCollisionSetter setter) {
+        for (int i = 0; i < ALL_LAYERS.length; i++) {
+            for (int j = i; j < ALL_LAYERS.length; j++) {
+                setter.shouldLayersCollide(ALL_LAYERS[i], ALL_LAYERS[j],
+                        isCollidingPair(ALL_LAYERS[i], ALL_LAYERS[j]));
+            }
+        }
+    }
+
+    /**
+     * Passes the name and the value of every layer of the game to the given action, always in
+     * the same order.
+     * @param action Accepts the name of a layer and the layer.
+     */
+    public static void forEachLayer(ObjIntConsumer<String> action) {
+        for (int i = 0; i < ALL_LAYERS.length; i++) {
+            action.accept(LAYER_NAMES[i], ALL_LAYERS[i]);
+        }
+    }
+
+    /**
+     * Estimates the collision pairs the engine checks in a frame, given the number of objects in
+     * every layer: the product of the object counts of every colliding pair of layers. This is an
+     * upper bound, not a measurement; the engine's broadphase may test fewer pairs.
+     * @param objectsInLayer    Returns the number of objects in the given layer.
+     * @return                  The upper bound of the collision pairs checked per frame.
+     */
+    public static long estimatedCollisionPairs(IntUnaryOperator objectsInLayer) {
+        long pairs = 0;
+        for (int[] pair : COLLIDING_PAIRS) {
+            pairs += (long) objectsInLayer.applyAsInt(pair[0]) * objectsInLayer.applyAsInt(pair[1]);
+        }
+        return pairs;
+    }
+
+    /*
+     * Checks whether two layers are one of the colliding pairs, in either order.
+     */
+    private static boolean isCollidingPair(int layer1, int layer2) {
+        for (int[] pair : COLLIDING_PAIRS) {
+            if ((pair[0] == layer1 && pair[1] == layer2) || (pair[0] == layer2 && pair[1] == layer1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.GameObjectPhysics;
+import danogl.util.Vector2;
+
+/**
+ * Represents an invisible, immovable collider that stands in for the ground blocks of a run of
+ * terrain columns of the same height.
+ */
+public class GroundCollider extends GameObject {
+
+    /**
+     * Constructs a GroundCollider with the specified top-left corner and dimensions.
+     * @param topLeftCorner The position of the top-left corner of the collider.
+     * @param dimensions    The width and height of the collider.
+     */
+    public GroundCollider(Vector2 topLeftCorner, Vector2 dimensions) {
+        super(topLeftCorner, dimensions, null);
+        physics().preventIntersectionsFromDirection(Vector2.ZERO);
+        physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+    }
+}
@@ -0,0 +1,269 @@
+package pepse.world;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Persists the changes players make to chunks, as deltas against the world generated from the
+ * seed, in memory-mapped region files of a fixed number of chunks each. Every chunk has a
+ * fixed-size slot in its region file, so nothing is read until a chunk streams in, and region
+ * files are only mapped on first use. Stored deltas are written to the files in the background,
+ * one write after the other; the store is otherwise used from the game thread only.
+ */
+public class RegionStore {
+
+    /**
+     * The number of chunks in a single region file. It is a constant (static final).
+     */
+    public static final int REGION_CHUNKS = 32;
+
+    /**
+     * The maximal number of eaten fruits stored per chunk. Any more are regenerated uneaten.
+     * It is a constant (static final).
+     */
+    public static final int MAX_FRUIT_DELTAS = 255;
+
+    /**
+     * The size of a single fruit delta: the fruit's index in its chunk and its remaining
+     * respawn time. It is a constant (static final).
+     */
+    private static final int FRUIT_DELTA_BYTES = Integer.BYTES + Float.BYTES;
+
+    /**
+     * The size of the slot of a single chunk: the number of fruit deltas, followed by the
+     * deltas. It is a constant (static final).
+     */
+    private static final int SLOT_BYTES = Integer.BYTES + MAX_FRUIT_DELTAS * FRUIT_DELTA_BYTES;
+
+    /**
+     * The size of a single region file. It is a constant (static final).
+     */
+    private static final int REGION_BYTES = REGION_CHUNKS * SLOT_BYTES;
+
+    /**
+     * The name of the file holding the world seed. It is a constant (static final).
+     */
+    private static final String SEED_FILE_NAME = "world.seed";
+
+    /**
+     * The name format of a region file, given the region index. It is a constant (static final).
+     */
+    private static final String REGION_FILE_FORMAT = "r.%d.region";
+
+    private final Path directory;
+    private final int seed;
+    private final Executor flushExecutor;
+    private final Map<Integer, MappedByteBuffer> regions;
+    private final Map<Integer, Map<Integer, Float>> dirtyChunks;
+    private final AtomicBoolean flushScheduled;
+    private CompletableFuture<Void> backgroundFlush;
+
+    /**
+     * Opens the region store in the given directory, creating it if needed. The world seed is
+     * read from the directory, or drawn and saved if the directory holds no world yet.
+     * @param directory     The directory of the region files.
+     * @param newSeed       Draws the seed of a new world.
+     * @param flushExecutor Runs the background writes of stored deltas.
+     * @throws UncheckedIOException If the directory or the seed cannot be read or created.
+     */
+    public RegionStore(Path directory, IntSupplier newSeed, Executor flushExecutor) {
+        this.directory = directory;
+        this.flushExecutor = flushExecutor;
+        this.regions = new HashMap<>();
+        this.dirtyChunks = new ConcurrentHashMap<>();
+        this.flushScheduled = new AtomicBoolean();
+        this.backgroundFlush = CompletableFuture.completedFuture(null);
+        try {
+            Files.createDirectories(directory);
+            Path seedFile = directory.resolve(SEED_FILE_NAME);
+            if (Files.exists(seedFile)) {
+                this.seed = ByteBuffer.wrap(Files.readAllBytes(seedFile)).getInt();
+            } else {
+                this.seed = newSeed.getAsInt();
+                Files.write(seedFile, ByteBuffer.allocate(Integer.BYTES).putInt(seed).array());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieves the seed of the stored world.
+     * @return The seed of the world.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Loads the eaten fruits of a chunk. Safe to call from chunk generation workers.
+     * @param chunkIndex    The index of the chunk.
+     * @return              A new map from the index of every eaten fruit in the chunk to its
+     *                      remaining respawn time.
+     */
+    public Map<Integer, Float> loadEatenFruits(int chunkIndex) {
+        Map<Integer, Float> dirty = dirtyChunks.get(chunkIndex);
+        if (dirty != null) {
+            return new HashMap<>(dirty);
+        }
+        Map<Integer, Float> eatenFruits = new HashMap<>();
+        synchronized (this) {
+            MappedByteBuffer region = regionOf(chunkIndex, false);
+            if (region == null) {
+                return eatenFruits;
+            }
+            int offset = slotOffset(chunkIndex);
+            int count = region.getInt(offset);
+            for (int i = 0; i < count; i++) {
+                int deltaOffset = offset + Integer.BYTES + i * FRUIT_DELTA_BYTES;
+                eatenFruits.put(region.getInt(deltaOffset),
+                        region.getFloat(deltaOffset + Integer.BYTES));
+            }
+        }
+        return eatenFruits;
+    }
+
+    /**
+     * Stores the eaten fruits of a chunk, replacing its previous deltas. They are written to the
+     * region file in the background.
+     * @param chunkIndex    The index of the chunk.
+     * @param eatenFruits   The index of every eaten fruit in the chunk and its remaining
+     *                      respawn time.
+     */
+    public void storeEatenFruits(int chunkIndex, Map<Integer, Float> eatenFruits) {
+        dirtyChunks.put(chunkIndex, new HashMap<>(eatenFruits));
+        if (flushScheduled.compareAndSet(false, true)) {
+            backgroundFlush = backgroundFlush.thenRunAsync(this::writeDirtyChunks, flushExecutor);
+        }
+    }
+
+    /**
+     * Waits for the background writes, then writes every stored delta left to its region file
+     * and forces the region files to disk.
+     * @throws UncheckedIOException If a region file cannot be mapped.
+     */
+    public void flush() {
+        awaitBackgroundFlush();
+        writeDirtyChunks();
+    }
+
+    /**
+     * Deletes the world's directory, with its seed and region files, for a world that is not
+     * kept, once the background writes are done, so that none of them creates a region file
+     * again. The store must not be used afterwards.
+     * @throws UncheckedIOException If a file or the directory cannot be deleted.
+     */
+    public void delete() {
+        awaitBackgroundFlush();
+        synchronized (this) {
+            regions.clear();
+            dirtyChunks.clear();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /*
+     * Waits for the scheduled background writes to finish. A write that failed left its deltas
+     * stored, so they are written again by the next flush.
+     */
+    private void awaitBackgroundFlush() {
+        backgroundFlush.handle((result, failure) -> null).join();
+    }
+
+    /*
+     * Writes every stored delta to its region file and forces the region files to disk.
+     * @throws UncheckedIOException If a region file cannot be mapped.
+     */
+    private void writeDirtyChunks() {
+        flushScheduled.set(false);
+        for (Map.Entry<Integer, Map<Integer, Float>> entry : dirtyChunks.entrySet()) {
+            writeSlot(entry.getKey(), entry.getValue());
+            dirtyChunks.remove(entry.getKey(), entry.getValue());
+        }
+        synchronized (this) {
+            for (MappedByteBuffer region : regions.values()) {
+                region.force();
+            }
+        }
+    }
+
+    /*
+     * Writes the eaten fruits of a chunk to its slot in its region file.
+     * @param chunkIndex    The index of the chunk.
+     * @param eatenFruits   The index of every eaten fruit in the chunk and its remaining
+     *                      respawn time.
+     */
+    private synchronized void writeSlot(int chunkIndex, Map<Integer, Float> eatenFruits) {
+        MappedByteBuffer region = regionOf(chunkIndex, true);
+        int offset = slotOffset(chunkIndex);
+        int count = 0;
+        for (Map.Entry<Integer, Float> fruit : eatenFruits.entrySet()) {
+            if (count == MAX_FRUIT_DELTAS) {
+                break;
+            }
+            int deltaOffset = offset + Integer.BYTES + count * FRUIT_DELTA_BYTES;
+            region.putInt(deltaOffset, fruit.getKey());
+            region.putFloat(deltaOffset + Integer.BYTES, fruit.getValue());
+            count++;
+        }
+        region.putInt(offset, count);
+    }
+
+    /*
+     * Retrieves the mapped region file of a chunk, mapping it on first use. A new file is
+     * zero-filled, which is a region of chunks without any deltas. Must be called while holding
+     * the store's lock.
+     * @param chunkIndex    The index of the chunk.
+     * @param create        Whether to create the region file if it does not exist yet.
+     * @return              The mapped region file of the chunk, or null if it does not exist
+     *                      and is not created.
+     */
+    private MappedByteBuffer regionOf(int chunkIndex, boolean create) {
+        int regionIndex = Math.floorDiv(chunkIndex, REGION_CHUNKS);
+        MappedByteBuffer region = regions.get(regionIndex);
+        if (region == null) {
+            Path regionFile = directory.resolve(String.format(REGION_FILE_FORMAT, regionIndex));
+            if (!create && !Files.exists(regionFile)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(regionFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            regions.put(regionIndex, region);
+        }
+        return region;
+    }
+
+    /*
+     * Retrieves the offset of the slot of a chunk in its region file.
+     * @param chunkIndex    The index of the chunk.
+     * @return              The offset of the chunk's slot.
+     */
+    private static int slotOffset(int chunkIndex) {
+        return Math.floorMod(chunkIndex, REGION_CHUNKS) * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,149 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A uniform-grid spatial hash of the immovable colliders (ground colliders and stumps), with
+ * cells of {@link Block#SIZE}. Static objects sit in an idle layer that collides with nothing,
+ * and only the ones in the cells around a moving object are moved to the colliding layer, so the
+ * engine's collision cost per frame stays constant as the loaded world grows.
+ */
+public class StaticColliderGrid {
+
+    /**
+     * The number of cells the bounds of a moving object are grown by on every side, so that
+     * colliders are active before a fast object reaches them. It is a constant (static final).
+     */
+    private static final int MARGIN_CELLS = 2;
+
+    private final int idleLayer;
+    private final int activeLayer;
+    private final BiConsumer<GameObject, Integer> addObject;
+    private final BiConsumer<GameObject, Integer> removeObject;
+    private final Map<Long, List<GameObject>> cells;
+    private Set<GameObject> activeObjects;
+    private Set<GameObject> nextActiveObjects;
+
+    /**
+     * Constructs an empty static collider grid.
+     * @param idleLayer     The layer of static objects away from every moving object.
+     * @param activeLayer   The layer of static objects near a moving object.
+     * @param addObject     Adds a game object to the given layer.
+     * @param removeObject  Removes a game object from the given layer.
+     */
+    public StaticColliderGrid(int idleLayer, int activeLayer,
+                              BiConsumer<GameObject, Integer> addObject,
+                              BiConsumer<GameObject, Integer> removeObject) {
+        this.idleLayer = idleLayer;
+        this.activeLayer = activeLayer;
+        this.addObject = addObject;
+        this.removeObject = removeObject;
+        this.cells = new HashMap<>();
+        this.activeObjects = new HashSet<>();
+        this.nextActiveObjects = new HashSet<>();
+    }
+
+    /**
+     * Inserts an immovable object into every cell its bounds overlap, and adds it to the game in
+     * the idle layer.
+     * @param object The immovable object to insert.
+     */
+    public void insert(GameObject object) {
+        forEachCell(object.getTopLeftCorner(), object.getDimensions(), 0, key ->
+                cells.computeIfAbsent(key, k -> new ArrayList<>()).add(object));
+        addObject.accept(object, idleLayer);
+    }
+
+    /**
+     * Removes an immovable object from the grid and from the game.
+     * @param object The immovable object to remove.
+     */
+    public void remove(GameObject object) {
+        forEachCell(object.getTopLeftCorner(), object.getDimensions(), 0, key -> {
+            List<GameObject> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(object);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        });
+        removeObject.accept(object, activeObjects.remove(object) ? activeLayer : idleLayer);
+    }
+
+    /**
+     * Moves the static objects in the cells around the given moving objects to the active layer,
+     * and every other active static object back to the idle layer.
+     * @param movingObjects The moving objects to collide with static objects.
+     */
+    public void update(List<GameObject> movingObjects) {
+        for (GameObject movingObject : movingObjects) {
+            forEachCell(movingObject.getTopLeftCorner(), movingObject.getDimensions(),
+                    MARGIN_CELLS, key -> {
+                List<GameObject> cell = cells.get(key);
+                if (cell != null) {
+                    nextActiveObjects.addAll(cell);
+                }
+            });
+        }
+        for (GameObject object : activeObjects) {
+            if (!nextActiveObjects.contains(object)) {
+                removeObject.accept(object, activeLayer);
+                addObject.accept(object, idleLayer);
+            }
+        }
+        for (GameObject object : nextActiveObjects) {
+            if (!activeObjects.contains(object)) {
+                removeObject.accept(object, idleLayer);
+                addObject.accept(object, activeLayer);
+            }
+        }
+        Set<GameObject> previousActiveObjects = activeObjects;
+        activeObjects = nextActiveObjects;
+        nextActiveObjects = previousActiveObjects;
+        nextActiveObjects.clear();
+    }
+
+    /**
+     * Retrieves the number of static objects currently in the active layer.
+     * @return The number of active static objects.
+     */
+    public int getActiveCount() {
+        return activeObjects.size();
+    }
+
+    /*
+     * Calls the given action with the key of every cell overlapped by the given bounds, grown by
+     * the given number of cells on every side.
+     */
+    private static void forEachCell(Vector2 topLeftCorner, Vector2 dimensions, int marginCells,
+                                    CellAction action) {
+        int minCellX = (int) Math.floor(topLeftCorner.x() / Block.SIZE) - marginCells;
+        int minCellY = (int) Math.floor(topLeftCorner.y() / Block.SIZE) - marginCells;
+        int maxCellX = (int) Math.ceil((topLeftCorner.x() + dimensions.x()) / Block.SIZE) - 1
+                + marginCells;
+        int maxCellY = (int) Math.ceil((topLeftCorner.y() + dimensions.y()) / Block.SIZE) - 1
+                + marginCells;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                action.apply(((long) cellX << Integer.SIZE) | (cellY & 0xFFFFFFFFL));
+            }
+        }
+    }
+
+    /*
+     * An action on the key of a single cell.
+     */
+    private interface CellAction {
+        void apply(long key);
+    }
+}
@@ -1,20 +1,59 @@
 package pepse.world;
 
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.GameObject;
+import danogl.gui.rendering.ImageRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
+import pepse.util.ColorPalette;
 import pepse.util.NoiseGenerator;
+import pepse.util.WorldRandom;
+import pepse.util.jfr.TerrainGenerationEvent;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Represents the terrain in the game world.
+ * Represents the terrain in the game world. Its generation methods may be called from chunk
+ * generation workers while the game thread queries it.
  */
 public class Terrain {
 
+    /**
+     * Describes which game objects the terrain uses for collisions.
+     */
+    public enum CollisionMode {
+        /**
+         * Every ground block is its own collider.
+         */
+        PER_BLOCK,
+        /**
+         * One tall collider is built per run of adjacent columns of the same height, and the
+         * ground blocks are only visual.
+         */
+        PER_COLUMN_RUN
+    }
+
+    /**
+     * Describes how the terrain is drawn.
+     */
+    public enum RenderMode {
+        /**
+         * Every ground block is a separate game object with its own renderable.
+         */
+        BLOCKS,
+        /**
+         * The ground blocks of a range are baked into a single image drawn by one game object.
+         * Only the exposed surface near the avatar is materialized as blocks to collide with, so
+         * this mode requires {@link CollisionMode#PER_COLUMN_RUN} everywhere else.
+         */
+        BAKED
+    }
+
     /**
      * The default factor used to determine the height of the terrain. It is a constant (static final).
      */
@@ -41,25 +80,131 @@ public class Terrain {
      */
     private static final String GROUND_TAG = "ground";
 
+    /**
+     * The message of the exception thrown for a baked terrain that collides per block.
+     * It is a constant (static final).
+     */
+    private static final String BAKED_PER_BLOCK_MESSAGE =
+            "Baked terrain has no blocks to collide with and requires per-column-run colliders";
+
+    private final int seed;
     private final NoiseGenerator noiseGenerator;
     private final float groundHeightAtX0;
+    private final CollisionMode collisionMode;
+    private final RenderMode renderMode;
+    private final Map<Integer, float[]> heightMaps;
 
     /**
-     * Constructs a Terrain object with the specified window dimensions and seed.
+     * Constructs a Terrain object with the specified window dimensions and seed, in which every
+     * ground block is its own collider.
      * @param windowDimensions  The dimensions of the game window.
      * @param seed              The seed used for noise generation.
      */
     public Terrain(Vector2 windowDimensions, int seed) {
+        this(windowDimensions, seed, CollisionMode.PER_BLOCK, RenderMode.BLOCKS);
+    }
+
+    /**
+     * Constructs a Terrain object with the specified window dimensions, seed, collision mode
+     * and render mode.
+     * @param windowDimensions  The dimensions of the game window.
+     * @param seed              The seed used for noise generation.
+     * @param collisionMode     The game objects the terrain uses for collisions.
+     * @param renderMode        The way the terrain is drawn.
+     * @throws IllegalArgumentException If the terrain is baked but collides per block.
+     */
+    public Terrain(Vector2 windowDimensions, int seed, CollisionMode collisionMode,
+                   RenderMode renderMode) {
+        if (renderMode == RenderMode.BAKED && collisionMode == CollisionMode.PER_BLOCK) {
+            throw new IllegalArgumentException(BAKED_PER_BLOCK_MESSAGE);
+        }
+        this.seed = seed;
         this.groundHeightAtX0 = DEFAULT_TERRAIN_HEIGHT_FACTOR * windowDimensions.y();
-        this.noiseGenerator = new NoiseGenerator(seed, (int) this.groundHeightAtX0);
+        this.noiseGenerator = new NoiseGenerator(seed, (int) this.groundHeightAtX0,
+                NoiseGenerator.Kernel.PERLIN_1D);
+        this.collisionMode = collisionMode;
+        this.renderMode = renderMode;
+        this.heightMaps = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Retrieves the seed the terrain is generated from, from which the rest of the world derives
+     * its randomness as well.
+     * @return The seed of the terrain.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves the collision mode of the terrain.
+     * @return The collision mode of the terrain.
+     */
+    public CollisionMode getCollisionMode() {
+        return collisionMode;
     }
 
     /**
-     * Retrieves the height of the ground at the specified x-coordinate.
+     * Retrieves the render mode of the terrain.
+     * @return The render mode of the terrain.
+     */
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Retrieves the height of the ground at the specified x-coordinate. Inside a chunk whose
+     * height map is cached, block-aligned x-coordinates are read from the cache and the height
+     * between them is interpolated linearly.
      * @param x The x-coordinate.
      * @return  The height of the ground at the specified x-coordinate.
      */
     public float groundHeightAt(float x) {
+        int column = (int) Math.floor(x / Block.SIZE);
+        int chunkIndex = Math.floorDiv(column, ChunkManager.CHUNK_COLUMNS);
+        float[] heightMap = heightMaps.get(chunkIndex);
+        if (heightMap == null) {
+            return computeGroundHeightAt(x);
+        }
+        int i = column - chunkIndex * ChunkManager.CHUNK_COLUMNS;
+        float t = (x - (float) column * Block.SIZE) / Block.SIZE;
+        return heightMap[i] + t * (heightMap[i + 1] - heightMap[i]);
+    }
+
+    /**
+     * Fills the height map cache of the specified chunk, so that ground height queries inside
+     * it become array reads. Concurrent calls for the same chunk compute the same heights.
+     * @param chunkIndex The index of the chunk.
+     */
+    public void cacheHeightMap(int chunkIndex) {
+        if (heightMaps.containsKey(chunkIndex)) {
+            return;
+        }
+        int firstColumn = chunkIndex * ChunkManager.CHUNK_COLUMNS;
+        // One extra column, so the last column of the chunk can be interpolated.
+        float[] heightMap = new float[ChunkManager.CHUNK_COLUMNS + 1];
+        noiseGenerator.noiseRange((float) firstColumn * Block.SIZE, Block.SIZE, heightMap.length,
+                NOISE_FACTOR * Block.SIZE, heightMap);
+        for (int i = 0; i < heightMap.length; i++) {
+            heightMap[i] += groundHeightAtX0;
+        }
+        heightMaps.putIfAbsent(chunkIndex, heightMap);
+    }
+
+    /**
+     * Evicts the height map cache of the specified chunk.
+     * @param chunkIndex The index of the chunk.
+     */
+    public void evictHeightMap(int chunkIndex) {
+        heightMaps.remove(chunkIndex);
+    }
+
+    /*
+     * Computes the height of the ground at the specified x-coordinate from the noise generator.
+     * @param x The x-coordinate.
+     * @return  The height of the ground at the specified x-coordinate.
+     */
+    private float computeGroundHeightAt(float x) {
         return (float) this.noiseGenerator.noise(x, NOISE_FACTOR * Block.SIZE) + groundHeightAtX0;
     }
 
@@ -70,14 +215,189 @@ public class Terrain {
      * @return      The list of generated terrain blocks.
      */
     public List<Block> createInRange(int minX, int maxX) {
-        int startX = (int) (Math.floor((double) minX / Block.SIZE) * Block.SIZE);
-        int endX = (int) (Math.floor((double) maxX / Block.SIZE) * Block.SIZE);
-        int numOfHorizontalBlocks = (endX - startX) / Block.SIZE;
+        TerrainGenerationEvent event = new TerrainGenerationEvent();
+        event.begin();
+        int startX = alignToBlock(minX);
+        int numOfHorizontalBlocks = (alignToBlock(maxX) - startX) / Block.SIZE;
         List<Block> blockList = new ArrayList<>();
         createBlocks(numOfHorizontalBlocks, startX, blockList);
+        commitGenerationEvent(event, minX, maxX, blockList.size());
         return blockList;
     }
 
+    /**
+     * Creates the ground colliders within the specified range. In {@link CollisionMode#PER_COLUMN_RUN}
+     * one collider covers every run of adjacent columns whose top block is at the same height; in
+     * {@link CollisionMode#PER_BLOCK} the blocks collide themselves and the list is empty.
+     * @param minX  The minimum x-coordinate.
+     * @param maxX  The maximum x-coordinate.
+     * @return      The list of generated ground colliders.
+     */
+    public List<GameObject> createCollidersInRange(int minX, int maxX) {
+        List<GameObject> colliders = new ArrayList<>();
+        if (collisionMode == CollisionMode.PER_BLOCK) {
+            return colliders;
+        }
+        int startX = alignToBlock(minX);
+        int endX = alignToBlock(maxX);
+        if (startX >= endX) {
+            return colliders;
+        }
+        int runStartX = startX;
+        int runTopY = columnTopAt(startX);
+        for (int curX = startX + Block.SIZE; curX < endX; curX += Block.SIZE) {
+            int curTopY = columnTopAt(curX);
+            if (curTopY != runTopY) {
+                colliders.add(createCollider(runStartX, curX, runTopY));
+                runStartX = curX;
+                runTopY = curTopY;
+            }
+        }
+        colliders.add(createCollider(runStartX, endX, runTopY));
+        return colliders;
+    }
+
+    /**
+     * Creates the tile map of the ground within the specified range: every column is ground from
+     * its top block down to the terrain depth, each cell with a color variant drawn from the
+     * column's seeded generator, so a range always gets the same tiles.
+     * @param minX  The minimum x-coordinate.
+     * @param maxX  The maximum x-coordinate.
+     * @return      The tile map of the range, or null if the range is empty.
+     */
+    public TerrainTiles createTilesInRange(int minX, int maxX) {
+        TerrainGenerationEvent event = new TerrainGenerationEvent();
+        event.begin();
+        int startX = alignToBlock(minX);
+        int numOfHorizontalBlocks = (alignToBlock(maxX) - startX) / Block.SIZE;
+        if (numOfHorizontalBlocks <= 0) {
+            return null;
+        }
+        int[] columnTops = new int[numOfHorizontalBlocks];
+        int minTopY = Integer.MAX_VALUE;
+        int maxTopY = Integer.MIN_VALUE;
+        for (int i = 0; i < numOfHorizontalBlocks; i++) {
+            columnTops[i] = columnTopAt(startX + i * Block.SIZE);
+            minTopY = Math.min(minTopY, columnTops[i]);
+            maxTopY = Math.max(maxTopY, columnTops[i]);
+        }
+        TerrainTiles tiles = new TerrainTiles(startX, minTopY, numOfHorizontalBlocks,
+                (maxTopY - minTopY) / Block.SIZE + TERRAIN_DEPTH);
+        for (int i = 0; i < numOfHorizontalBlocks; i++) {
+            SplittableRandom random = WorldRandom.at(seed, WorldRandom.TERRAIN_SALT,
+                    startX + i * Block.SIZE);
+            int surfaceRow = (columnTops[i] - minTopY) / Block.SIZE;
+            for (int j = 0; j < TERRAIN_DEPTH; j++) {
+                tiles.set(i, surfaceRow + j, TerrainTiles.GROUND,
+                        (byte) random.nextInt(ColorPalette.PALETTE_SIZE));
+            }
+        }
+        commitGenerationEvent(event, minX, maxX, numOfHorizontalBlocks * TERRAIN_DEPTH);
+        return tiles;
+    }
+
+    /**
+     * Creates a single game object that draws every ground cell of a tile map from one pre-baked
+     * image, instead of one renderable per block.
+     * @param tiles The tile map to draw.
+     * @return      The game object drawing the baked ground.
+     */
+    public GameObject createBaked(TerrainTiles tiles) {
+        BufferedImage image = new BufferedImage(tiles.getColumns() * Block.SIZE,
+                tiles.getRows() * Block.SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int i = 0; i < tiles.getColumns(); i++) {
+            for (int j = 0; j < tiles.getRows(); j++) {
+                if (tiles.getMaterial(i, j) == TerrainTiles.GROUND) {
+                    graphics.setColor(ColorPalette.colorAt(BASE_GROUND_COLOR,
+                            tiles.getVariant(i, j)));
+                    graphics.fillRect(i * Block.SIZE, j * Block.SIZE, Block.SIZE, Block.SIZE);
+                }
+            }
+        }
+        graphics.dispose();
+        GameObject bakedGround = new GameObject(new Vector2(tiles.getMinX(), tiles.getTopY()),
+                new Vector2(image.getWidth(), image.getHeight()), new ImageRenderable(image));
+        bakedGround.setTag(GROUND_TAG);
+        return bakedGround;
+    }
+
+    /**
+     * Materializes real blocks for the exposed surface of a tile map: the given number of ground
+     * cells from the top of every column. The blocks collide, so they stand in for the ground
+     * colliders of the tile map's range. The cells below stay bytes in the tile map.
+     * @param tiles         The tile map.
+     * @param surfaceDepth  The number of ground cells materialized per column.
+     * @return              The list of materialized surface blocks.
+     */
+    public List<Block> materializeSurface(TerrainTiles tiles, int surfaceDepth) {
+        List<Block> blockList = new ArrayList<>();
+        for (int i = 0; i < tiles.getColumns(); i++) {
+            int surfaceRow = tiles.surfaceRow(i);
+            int lastRow = Math.min(tiles.getRows(), surfaceRow + surfaceDepth);
+            for (int j = surfaceRow; j < lastRow; j++) {
+                if (tiles.getMaterial(i, j) != TerrainTiles.GROUND) {
+                    continue;
+                }
+                Block block = new Block(new Vector2(tiles.getMinX() + i * Block.SIZE,
+                        tiles.getTopY() + j * Block.SIZE),
+                        ColorPalette.renderableAt(BASE_GROUND_COLOR, tiles.getVariant(i, j)));
+                block.setTag(GROUND_TAG);
+                blockList.add(block);
+            }
+        }
+        return blockList;
+    }
+
+    /*
+     * Commits a terrain generation event, if it is enabled.
+     * @param event         The event, begun when the generation started.
+     * @param minX          The minimum x-coordinate of the generated range.
+     * @param maxX          The maximum x-coordinate of the generated range.
+     * @param blockCount    The number of ground blocks or cells generated.
+     */
+    private static void commitGenerationEvent(TerrainGenerationEvent event, int minX, int maxX,
+                                              int blockCount) {
+        if (event.shouldCommit()) {
+            event.minX = minX;
+            event.maxX = maxX;
+            event.blockCount = blockCount;
+            event.commit();
+        }
+    }
+
+    /*
+     * Creates a single ground collider covering the columns in [startX, endX).
+     * @param startX    The x-coordinate of the first column of the run.
+     * @param endX      The x-coordinate just past the last column of the run.
+     * @param topY      The y-coordinate of the top block of the run.
+     * @return          The ground collider.
+     */
+    private GameObject createCollider(int startX, int endX, int topY) {
+        GameObject collider = new GroundCollider(new Vector2(startX, topY),
+                new Vector2(endX - startX, TERRAIN_DEPTH * Block.SIZE));
+        collider.setTag(GROUND_TAG);
+        return collider;
+    }
+
+    /*
+     * Retrieves the y-coordinate of the top block of the column at the specified x-coordinate.
+     * @param x The block-aligned x-coordinate of the column.
+     * @return  The y-coordinate of the top block of the column.
+     */
+    private int columnTopAt(int x) {
+        return (int) (Math.floor(groundHeightAt(x) / Block.SIZE) * Block.SIZE);
+    }
+
+    /*
+     * Rounds the specified x-coordinate down to the nearest block boundary.
+     * @param x The x-coordinate.
+     * @return  The block-aligned x-coordinate.
+     */
+    private static int alignToBlock(int x) {
+        return (int) (Math.floor((double) x / Block.SIZE) * Block.SIZE);
+    }
+
     /*
      * Creates terrain blocks within the specified range and adds them to the block list.
      * @param numOfHorizontalBlocks The number of horizontal blocks to create.
@@ -87,10 +407,11 @@ public class Terrain {
     private void createBlocks(int numOfHorizontalBlocks, int startX, List<Block> blockList) {
         for (int i = 0; i < numOfHorizontalBlocks; i++) {
             int curX = startX + i * Block.SIZE;
-            int curY = (int) (Math.floor(groundHeightAt(curX) / Block.SIZE) * Block.SIZE);
+            int curY = columnTopAt(curX);
+            SplittableRandom random = WorldRandom.at(seed, WorldRandom.TERRAIN_SALT, curX);
             for (int j = 0; j < TERRAIN_DEPTH; j++) {
-                Renderable blockRenderable = new RectangleRenderable(ColorSupplier
-                        .approximateColor(BASE_GROUND_COLOR));
+                Renderable blockRenderable = ColorPalette.renderableAt(BASE_GROUND_COLOR,
+                        random.nextInt(ColorPalette.PALETTE_SIZE));
                 Block curBlock = new Block(new Vector2(curX, curY), blockRenderable);
                 curBlock.setTag(GROUND_TAG);
                 blockList.add(curBlock);
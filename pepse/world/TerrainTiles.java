@@ -0,0 +1,118 @@
+package pepse.world;
+
+/**
+ * A compact tile map of a range of terrain columns: one material id and one color variant byte
+ * per {@link Block#SIZE} cell, instead of a full game object per block.
+ */
+public class TerrainTiles {
+
+    /**
+     * The material of an empty cell. It is a constant (static final).
+     */
+    public static final byte AIR = 0;
+
+    /**
+     * The material of a ground cell. It is a constant (static final).
+     */
+    public static final byte GROUND = 1;
+
+    private final int minX;
+    private final int topY;
+    private final int columns;
+    private final int rows;
+    private final byte[] materials;
+    private final byte[] variants;
+
+    /**
+     * Constructs an empty tile map, in which every cell is air.
+     * @param minX      The x-coordinate of the left edge of the first column.
+     * @param topY      The y-coordinate of the top edge of the first row.
+     * @param columns   The number of columns.
+     * @param rows      The number of rows.
+     */
+    public TerrainTiles(int minX, int topY, int columns, int rows) {
+        this.minX = minX;
+        this.topY = topY;
+        this.columns = columns;
+        this.rows = rows;
+        this.materials = new byte[columns * rows];
+        this.variants = new byte[columns * rows];
+    }
+
+    /**
+     * Sets the material and color variant of a cell.
+     * @param column    The column of the cell.
+     * @param row       The row of the cell.
+     * @param material  The material id of the cell.
+     * @param variant   The color variant of the cell.
+     */
+    public void set(int column, int row, byte material, byte variant) {
+        materials[row * columns + column] = material;
+        variants[row * columns + column] = variant;
+    }
+
+    /**
+     * Retrieves the material id of a cell.
+     * @param column    The column of the cell.
+     * @param row       The row of the cell.
+     * @return          The material id of the cell.
+     */
+    public byte getMaterial(int column, int row) {
+        return materials[row * columns + column];
+    }
+
+    /**
+     * Retrieves the color variant of a cell.
+     * @param column    The column of the cell.
+     * @param row       The row of the cell.
+     * @return          The color variant of the cell.
+     */
+    public byte getVariant(int column, int row) {
+        return variants[row * columns + column];
+    }
+
+    /**
+     * Retrieves the row of the topmost non-air cell of a column.
+     * @param column    The column.
+     * @return          The row of the column's surface, or the number of rows if it is all air.
+     */
+    public int surfaceRow(int column) {
+        int row = 0;
+        while (row < rows && getMaterial(column, row) == AIR) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Retrieves the x-coordinate of the left edge of the first column.
+     * @return The x-coordinate of the left edge of the first column.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Retrieves the y-coordinate of the top edge of the first row.
+     * @return The y-coordinate of the top edge of the first row.
+     */
+    public int getTopY() {
+        return topY;
+    }
+
+    /**
+     * Retrieves the number of columns.
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrieves the number of rows.
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,63 @@
+package pepse.world;
+
+/**
+ * The single authoritative clock of the game world. It advances by the fixed simulation step once
+ * per simulation tick, scaled by a time scale, so game time does not depend on the frame rate,
+ * and everything timed in game time (the day-night cycle, fruit respawns) is derived from it
+ * instead of keeping its own timer.
+ */
+public class WorldClock {
+
+    private final float cycleLength;
+    private float timeScale;
+    private double time;
+
+    /**
+     * Constructs a world clock at the start of a day, running at normal speed.
+     * @param cycleLength The length of a day-night cycle, in seconds of game time.
+     */
+    public WorldClock(float cycleLength) {
+        this.cycleLength = cycleLength;
+        this.timeScale = 1;
+    }
+
+    /**
+     * Advances the clock by a simulation tick.
+     * @param deltaTime The fixed time step of a simulation tick, in seconds.
+     */
+    public void advance(float deltaTime) {
+        time += deltaTime * timeScale;
+    }
+
+    /**
+     * Retrieves the game time elapsed since the world started.
+     * @return The game time, in seconds.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Retrieves the time of day, as a fraction of the day-night cycle.
+     * @return The time of day, between 0 (inclusive) and 1 (exclusive).
+     */
+    public float getTimeOfDay() {
+        return (float) ((time % cycleLength) / cycleLength);
+    }
+
+    /**
+     * Sets how fast game time runs relative to real time, such as above 1 to fast-forward.
+     * @param timeScale The number of game seconds per real second.
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Retrieves how fast game time runs relative to real time.
+     * @return The number of game seconds per real second.
+     */
+    public float getTimeScale() {
+        return timeScale;
+    }
+}
@@ -0,0 +1,84 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.WorldClock;
+
+/**
+ * Derives the sun's position, its halo, the sky's look and the night's darkness from the world
+ * clock, in a single pass per frame. The sun's orbit is precomputed into a table of top-left
+ * corners sampled by the time of day, and the halo keeps a fixed offset from the sun, like a child
+ * transform, taken from a parallel table. The sky and the night overlay are lit by a baked
+ * {@link SkyLut}, whose renderable and opacity are only swapped when its sample changes, so that
+ * a frame allocates nothing.
+ */
+public class DayNight {
+
+    /**
+     * The number of samples of the sun's orbit over a day-night cycle, a quarter of a degree
+     * apart. It is a constant (static final).
+     */
+    private static final int ORBIT_SAMPLES = 1440;
+
+    /**
+     * The factor for determining the offset of the halo's corner. It is a constant (static final).
+     */
+    private static final float HALF_FACTOR = 0.5f;
+
+    private final GameObject sun;
+    private final GameObject sunHalo;
+    private final GameObject sky;
+    private final GameObject night;
+    private final SkyLut skyLut;
+    private final Vector2[] sunCorners;
+    private final Vector2[] haloCorners;
+    private int skySample;
+
+    /**
+     * Constructs the day-night pass and precomputes the sun's orbit.
+     * @param sun               The sun, as created by {@link Sun#create}.
+     * @param sunHalo           The sun's halo, as created by {@link SunHalo#create}.
+     * @param sky               The sky, as created by {@link pepse.world.Sky#create}.
+     * @param night             The night overlay, as created by {@link Night#create}.
+     * @param skyLut            The baked table of the sky's look and the ambient light over the
+     *                          cycle.
+     * @param windowDimensions  The dimensions of the game window.
+     */
+    public DayNight(GameObject sun, GameObject sunHalo, GameObject sky, GameObject night,
+                    SkyLut skyLut, Vector2 windowDimensions) {
+        this.sun = sun;
+        this.sunHalo = sunHalo;
+        this.sky = sky;
+        this.night = night;
+        this.skyLut = skyLut;
+        this.skySample = -1;
+        this.sunCorners = new Vector2[ORBIT_SAMPLES];
+        this.haloCorners = new Vector2[ORBIT_SAMPLES];
+        Vector2 sunHalfSize = sun.getDimensions().mult(HALF_FACTOR);
+        Vector2 haloOffset = sunHalo.getDimensions().subtract(sun.getDimensions())
+                .mult(HALF_FACTOR);
+        for (int i = 0; i < ORBIT_SAMPLES; i++) {
+            sunCorners[i] = Sun.centerAt(windowDimensions, (float) i / ORBIT_SAMPLES)
+                    .subtract(sunHalfSize);
+            haloCorners[i] = sunCorners[i].subtract(haloOffset);
+        }
+    }
+
+    /**
+     * Moves the sun and its halo, and lights the sky and darkens the night overlay to the clock's
+     * time of day.
+     * @param clock The world clock.
+     */
+    public void update(WorldClock clock) {
+        float timeOfDay = clock.getTimeOfDay();
+        int orbitSample = (int) (timeOfDay * ORBIT_SAMPLES) % ORBIT_SAMPLES;
+        sun.setTopLeftCorner(sunCorners[orbitSample]);
+        sunHalo.setTopLeftCorner(haloCorners[orbitSample]);
+        int sample = skyLut.sampleAt(timeOfDay);
+        if (sample != skySample) {
+            skySample = sample;
+            sky.renderer().setRenderable(skyLut.renderableAt(sample));
+            night.renderer().setOpaqueness(skyLut.overlayOpacityAt(sample));
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package pepse.world.daynight;
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
@@ -10,16 +9,13 @@ import java.awt.*;
 
 
 /**
- * Represents the night environment in the game world.
+ * Represents the night environment in the game world: a black overlay over the whole screen,
+ * whose opacity is the ambient darkness of the time of day, as baked by {@link SkyLut} and
+ * driven by {@link DayNight}.
  */
 public class Night {
 
     // Constants
-    /**
-     * The opacity value at midnight. It is a constant (static final).
-     */
-    private static final float MIDNIGHT_OPACITY = 0.5f;
-
     /**
      * The fully transparent opacity value. It is a constant (static final).
      */
@@ -30,32 +26,23 @@ public class Night {
      */
     private static final String NIGHT_TAG = "night";
 
-    /**
-     * The factor for determining the center of the GameObject. It is a constant (static final).
-     */
-    private static final float HALF_FACTOR = 0.5f;
-
     /*
     Private constructor to prevent instantiation
     */
     private Night() {}
 
     /**
-     * Creates a GameObject representing the night environment.
+     * Creates a GameObject representing the night environment, transparent as at the start of
+     * a day.
      * @param windowDimensions The dimensions of the game window.
-     * @param cycleLength      The length of the day-night cycle.
      * @return The GameObject representing the night environment.
      */
-    public static GameObject create(Vector2 windowDimensions, float cycleLength){
+    public static GameObject create(Vector2 windowDimensions){
         Renderable nightRenderable = new RectangleRenderable(Color.BLACK);
         GameObject night = new GameObject(Vector2.ZERO,windowDimensions,nightRenderable);
         night.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         night.setTag(NIGHT_TAG);
-        new Transition<>( night, night.renderer()::setOpaqueness,
-                FULLY_TRANSPARENT,
-                MIDNIGHT_OPACITY, Transition.CUBIC_INTERPOLATOR_FLOAT,cycleLength * HALF_FACTOR,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH, null);
-
+        night.renderer().setOpaqueness(FULLY_TRANSPARENT);
         return night;
     }
 }
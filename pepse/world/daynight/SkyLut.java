@@ -0,0 +1,178 @@
+package pepse.world.daynight;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A baked lookup table of the sky's look and the ambient light over a day-night cycle. The colors
+ * of the zenith and the horizon are interpolated between keyframes at noon, dusk, midnight and
+ * dawn and baked into one renderable per sample, so that the sky is colored by swapping a single
+ * renderable. The ambient light is interpolated between the same keyframes and baked into the
+ * opacity of the night overlay, which darkens the whole screen, sky included.
+ */
+public class SkyLut {
+
+    /**
+     * How the sky is painted by every entry of the table.
+     */
+    public enum Style {
+        /** A single color, halfway between the zenith and the horizon. */
+        FLAT,
+        /** Vertical bands from the zenith down to the horizon, cached as an image. */
+        GRADIENT
+    }
+
+    /**
+     * The number of samples of the sky over a day-night cycle. It is a constant (static final).
+     */
+    public static final int SAMPLES = 96;
+
+    /**
+     * The number of bands of a gradient sky. It is a constant (static final).
+     */
+    public static final int GRADIENT_BANDS = 12;
+
+    /**
+     * The times of day of the keyframes, as fractions of the day-night cycle, from noon through
+     * dusk, midnight and dawn back to noon. It is a constant (static final).
+     */
+    private static final float[] KEYFRAME_TIMES = {0f, 0.2f, 0.25f, 0.32f, 0.68f, 0.75f, 0.8f, 1f};
+
+    /**
+     * The color of the zenith at every keyframe. It is a constant (static final).
+     */
+    private static final Color[] ZENITH_COLORS = {
+            new Color(104, 176, 222), new Color(104, 176, 222), new Color(86, 96, 170),
+            new Color(14, 20, 52), new Color(14, 20, 52), new Color(92, 112, 182),
+            new Color(104, 176, 222), new Color(104, 176, 222)};
+
+    /**
+     * The color of the horizon at every keyframe. At noon, halfway between it and the zenith is
+     * the basic sky color, #80C6E5. It is a constant (static final).
+     */
+    private static final Color[] HORIZON_COLORS = {
+            new Color(152, 220, 236), new Color(152, 220, 236), new Color(246, 150, 86),
+            new Color(36, 44, 84), new Color(36, 44, 84), new Color(248, 184, 130),
+            new Color(152, 220, 236), new Color(152, 220, 236)};
+
+    /**
+     * The brightness of the ambient light at every keyframe, which the night overlay darkens the
+     * screen to. It is a constant (static final).
+     */
+    private static final float[] AMBIENT_BRIGHTNESS = {1f, 1f, 0.9f, 0.6f, 0.6f, 0.9f, 1f, 1f};
+
+    /**
+     * The factor for the color halfway between two others. It is a constant (static final).
+     */
+    private static final float HALF_FACTOR = 0.5f;
+
+    private final Renderable[] renderables;
+    private final float[] overlayOpacities;
+
+    /**
+     * Bakes the table of the sky's renderables and the night overlay's opacities.
+     * @param style How the sky is painted.
+     */
+    public SkyLut(Style style) {
+        this.renderables = new Renderable[SAMPLES];
+        this.overlayOpacities = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            float timeOfDay = (float) i / SAMPLES;
+            int keyframe = keyframeBefore(timeOfDay);
+            float progress = (timeOfDay - KEYFRAME_TIMES[keyframe]) /
+                    (KEYFRAME_TIMES[keyframe + 1] - KEYFRAME_TIMES[keyframe]);
+            overlayOpacities[i] = 1 - lerp(AMBIENT_BRIGHTNESS[keyframe],
+                    AMBIENT_BRIGHTNESS[keyframe + 1], progress);
+            Color zenith = lerp(ZENITH_COLORS[keyframe], ZENITH_COLORS[keyframe + 1], progress);
+            Color horizon = lerp(HORIZON_COLORS[keyframe], HORIZON_COLORS[keyframe + 1],
+                    progress);
+            renderables[i] = style == Style.GRADIENT ? gradientOf(zenith, horizon) :
+                    new RectangleRenderable(lerp(zenith, horizon, HALF_FACTOR));
+        }
+    }
+
+    /**
+     * Retrieves the index of the sample of a time of day, so that callers can tell when the
+     * sky's renderable and the night overlay's opacity have to be swapped.
+     * @param timeOfDay The time of day, as a fraction of the day-night cycle.
+     * @return The index of the sample, between 0 and SAMPLES - 1.
+     */
+    public int sampleAt(float timeOfDay) {
+        return (int) (timeOfDay * SAMPLES) % SAMPLES;
+    }
+
+    /**
+     * Retrieves the baked renderable of a sample.
+     * @param sample The index of the sample, as returned by {@link #sampleAt}.
+     * @return The sky's renderable at the sample.
+     */
+    public Renderable renderableAt(int sample) {
+        return renderables[sample];
+    }
+
+    /**
+     * Retrieves the baked opacity of the night overlay at a sample: the darkness of the ambient
+     * light, so that the black overlay dims the screen to the ambient brightness.
+     * @param sample The index of the sample, as returned by {@link #sampleAt}.
+     * @return The opacity of the night overlay at the sample, between 0 and 1.
+     */
+    public float overlayOpacityAt(int sample) {
+        return overlayOpacities[sample];
+    }
+
+    /*
+     * Finds the last keyframe at or before a time of day.
+     * @param timeOfDay The time of day, as a fraction of the day-night cycle.
+     * @return The index of the keyframe, always followed by another one.
+     */
+    private static int keyframeBefore(float timeOfDay) {
+        int keyframe = 0;
+        while (keyframe < KEYFRAME_TIMES.length - 2 && KEYFRAME_TIMES[keyframe + 1] <= timeOfDay) {
+            keyframe++;
+        }
+        return keyframe;
+    }
+
+    /*
+     * Creates an image renderable of vertical bands from the zenith down to the horizon.
+     * @param zenith  The color of the top band.
+     * @param horizon The color of the bottom band.
+     * @return The image renderable, stretched over the sky when rendered.
+     */
+    private static Renderable gradientOf(Color zenith, Color horizon) {
+        BufferedImage image = new BufferedImage(1, GRADIENT_BANDS, BufferedImage.TYPE_INT_RGB);
+        for (int band = 0; band < GRADIENT_BANDS; band++) {
+            image.setRGB(0, band, lerp(zenith, horizon,
+                    (float) band / (GRADIENT_BANDS - 1)).getRGB());
+        }
+        return new ImageRenderable(image);
+    }
+
+    /*
+     * Interpolates linearly between two colors.
+     * @param from     The color at progress 0.
+     * @param to       The color at progress 1.
+     * @param progress The progress between the colors.
+     * @return The interpolated color.
+     */
+    private static Color lerp(Color from, Color to, float progress) {
+        return new Color(Math.round(lerp(from.getRed(), to.getRed(), progress)),
+                Math.round(lerp(from.getGreen(), to.getGreen(), progress)),
+                Math.round(lerp(from.getBlue(), to.getBlue(), progress)));
+    }
+
+    /*
+     * Interpolates linearly between two values.
+     * @param from     The value at progress 0.
+     * @param to       The value at progress 1.
+     * @param progress The progress between the values.
+     * @return The interpolated value.
+     */
+    private static float lerp(float from, float to, float progress) {
+        return from + (to - from) * progress;
+    }
+}
@@ -2,26 +2,20 @@ package pepse.world.daynight;
 
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
 import java.awt.*;
 /**
- * Represents the sun in the game world.
+ * Represents the sun in the game world. Its orbit is driven by {@link DayNight}.
  */
 public class Sun {
 
     /**
-     * The initial angle of the sun. It is a constant (static final).
+     * The angle the sun travels over a day-night cycle. It is a constant (static final).
      */
-    private static final float INITIAL_SUN_ANGLE = 0f;
-
-    /**
-     * The final angle of the sun. It is a constant (static final).
-     */
-    private static final float FINAL_SUN_ANGLE = 360f;
+    private static final float FULL_CYCLE_ANGLE = 360f;
 
     /**
      * The size of the sun. It is a constant (static final).
@@ -54,36 +48,34 @@ public class Sun {
     private Sun() {}
 
     /**
-     * Creates a GameObject representing the sun.
+     * Creates a GameObject representing the sun, at its position at the start of a day.
      * @param windowDimensions The dimensions of the game window.
-     * @param cycleLength      The length of the day-night cycle.
      * @return The GameObject representing the sun.
      */
-    public static GameObject create(Vector2 windowDimensions, float cycleLength) {
+    public static GameObject create(Vector2 windowDimensions) {
         Renderable sunRenderable = new OvalRenderable(Color.YELLOW);
         Vector2 sunSize = Vector2.ONES.mult(SUN_SIZE);
         GameObject sun = new GameObject(Vector2.ZERO, sunSize, sunRenderable);
         sun.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sun.setTag(SUN_TAG);
-        setCycleTransition(windowDimensions, cycleLength, sun);
+        sun.setCenter(centerAt(windowDimensions, 0));
         return sun;
     }
 
-    /*
-     * Sets the transition for the sun during the day-night cycle.
+    /**
+     * Computes the center of the sun at a time of day: it orbits the center of the window's
+     * bottom third once per cycle, starting straight above it. It allocates, so it is meant for
+     * precomputing the orbit rather than for every frame.
      * @param windowDimensions The dimensions of the game window.
-     * @param cycleLength      The length of the day-night cycle.
-     * @param sun              The sun GameObject.
+     * @param timeOfDay        The time of day, as a fraction of the day-night cycle.
+     * @return The center of the sun, in camera coordinates.
      */
-    private static void setCycleTransition(Vector2 windowDimensions, float cycleLength, GameObject sun) {
+    public static Vector2 centerAt(Vector2 windowDimensions, float timeOfDay) {
         Vector2 cycleCenter = new Vector2(windowDimensions.x() * HALF_FACTOR,
                 windowDimensions.y() * DEFAULT_TERRAIN_HEIGHT_FACTOR);
-        sun.setCenter(new Vector2(windowDimensions.x() * HALF_FACTOR,
-                windowDimensions.y() * SUN_HEIGHT_FACTOR));
-        Vector2 initialSunCenter = sun.getCenter();
-        new Transition<>(sun, (Float angle) ->
-                sun.setCenter(initialSunCenter.subtract(cycleCenter).rotated(angle).add(cycleCenter)),
-                INITIAL_SUN_ANGLE, FINAL_SUN_ANGLE, Transition.LINEAR_INTERPOLATOR_FLOAT, cycleLength,
-                Transition.TransitionType.TRANSITION_LOOP, null);
+        Vector2 initialSunCenter = new Vector2(windowDimensions.x() * HALF_FACTOR,
+                windowDimensions.y() * SUN_HEIGHT_FACTOR);
+        return initialSunCenter.subtract(cycleCenter).rotated(timeOfDay * FULL_CYCLE_ANGLE)
+                .add(cycleCenter);
     }
 }
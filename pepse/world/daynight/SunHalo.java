@@ -9,7 +9,7 @@ import danogl.util.Vector2;
 import java.awt.*;
 
 /**
- * Represents the halo around the sun during daytime.
+ * Represents the halo around the sun during daytime. It is kept on the sun by {@link DayNight}.
  */
 public class SunHalo {
 
@@ -42,9 +42,9 @@ public class SunHalo {
         Renderable sunHaloRenderable = new OvalRenderable(ALPHA_COLOR);
         Vector2 sunHaloSize = sun.getDimensions().mult(HALO_SIZE_FACTOR);
         GameObject sunHalo = new GameObject(sun.getTopLeftCorner(), sunHaloSize, sunHaloRenderable);
-        sun.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-        sun.setTag(SUN_HALO_TAG);
-        sunHalo.addComponent(deltaTime -> sunHalo.setCenter(sun.getCenter()));
+        sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        sunHalo.setTag(SUN_HALO_TAG);
+        sunHalo.setCenter(sun.getCenter());
         return sunHalo;
     }
 }
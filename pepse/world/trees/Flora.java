@@ -1,10 +1,13 @@
 package pepse.world.trees;
 
+import danogl.GameObject;
 import danogl.util.Vector2;
+import pepse.util.WorldRandom;
+import pepse.util.jfr.FloraGenerationEvent;
 import pepse.world.Block;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -24,39 +27,64 @@ public class Flora {
     private static final float TREE_THRESHOLD = 0.06f;
 
     // Fields
+    private final long seed;
     private final float dayTimeCycle;
     private final Function<Float, Float> groundHeightAt;
+    private final RespawnScheduler respawnScheduler;
     private final Consumer<Double> increaseEnergy;
 
     /**
      * Constructs the flora with the specified parameters.
+     * @param seed              The seed of the world the trees are derived from.
      * @param dayTimeCycle      The day time cycle.
      * @param groundHeightAt    The function for obtaining the ground height.
+     * @param respawnScheduler  The scheduler that respawns eaten fruits.
      * @param increaseEnergy    The consumer for increasing energy.
      */
-    public Flora(float dayTimeCycle, Function<Float, Float> groundHeightAt,
-                 Consumer<Double> increaseEnergy) {
+    public Flora(long seed, float dayTimeCycle, Function<Float, Float> groundHeightAt,
+                 RespawnScheduler respawnScheduler, Consumer<Double> increaseEnergy) {
+        this.seed = seed;
         this.dayTimeCycle = dayTimeCycle;
         this.groundHeightAt = groundHeightAt;
+        this.respawnScheduler = respawnScheduler;
         this.increaseEnergy = increaseEnergy;
     }
 
     /**
-     * Creates trees within the specified range.
+     * Creates trees within the specified range. Every column draws from its own generator,
+     * derived from the seed and its x-coordinate, so a range always gets the same trees.
      * @param minX The minimum x-coordinate.
      * @param maxX The maximum x-coordinate.
      * @return An ArrayList of trees within the specified range.
      */
     public ArrayList<Tree> createInRange(int minX, int maxX) {
-        Random random = new Random();
+        FloraGenerationEvent event = new FloraGenerationEvent();
+        event.begin();
         ArrayList<Tree> trees = new ArrayList<>();
         for (float i = minX; i < maxX; i += Block.SIZE) {
+            SplittableRandom random = WorldRandom.at(seed, WorldRandom.FLORA_SALT, (long) i);
             if (random.nextFloat(TREE_PROB_BOUND) <= TREE_THRESHOLD) {
                 Tree tree = new Tree(this.dayTimeCycle, new Vector2(i,
-                        groundHeightAt.apply(i)), this.increaseEnergy);
+                        groundHeightAt.apply(i)), random, this.respawnScheduler,
+                        this.increaseEnergy);
                 trees.add(tree);
             }
         }
+        if (event.shouldCommit()) {
+            event.minX = minX;
+            event.maxX = maxX;
+            event.treeCount = trees.size();
+            for (Tree tree : trees) {
+                for (GameObject object : tree.getLeavesAndFruitsArray()) {
+                    if (object instanceof Leaf) {
+                        event.leafCount++;
+                    } else {
+                        event.fruitCount++;
+                    }
+                }
+            }
+            event.commit();
+        }
         return trees;
     }
 }
@@ -0,0 +1,237 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import pepse.world.ChunkListener;
+import pepse.world.RegionStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Streams trees along with the terrain chunks: creates the trees of a chunk on a generation
+ * worker, adds them to the game and registers them for jump events and leaf animation once the
+ * chunk is loaded, and removes and unregisters them when it is retired. The fruits eaten in a
+ * chunk are kept in a region store, so they are restored when the chunk streams in again. A chunk
+ * is marked changed whenever one of its fruits is eaten or respawns, so that only changed chunks
+ * are stored again.
+ */
+public class FloraStreamer implements ChunkListener {
+
+    private final Flora flora;
+    private final JumpObserverRegistry jumpObservers;
+    private final FoliageSystem foliageSystem;
+    private final RespawnScheduler respawnScheduler;
+    private final RegionStore regionStore;
+    private final int stumpLayer;
+    private final int leafLayer;
+    private final int fruitLayer;
+    private final BiConsumer<GameObject, Integer> addObject;
+    private final BiConsumer<GameObject, Integer> removeObject;
+    private final Map<Integer, List<Tree>> loadedTrees;
+    private final Map<Integer, List<Fruit>> loadedFruits;
+    private final Map<Fruit, Integer> fruitChunks;
+    private final Set<Integer> changedChunks;
+
+    /**
+     * Constructs a flora streamer.
+     * @param flora             The flora the trees are created from.
+     * @param jumpObservers     The registry the trees' stumps, leaves and fruits observe jumps
+     *                          through.
+     * @param foliageSystem     The foliage system animating the trees' leaves.
+     * @param respawnScheduler  The scheduler respawning the trees' eaten fruits.
+     * @param regionStore       The store the eaten fruits of every chunk are kept in.
+     * @param stumpLayer        The layer the stumps are added to.
+     * @param leafLayer         The layer the leaves are added to.
+     * @param fruitLayer        The layer the fruits are added to.
+     * @param addObject         Adds a game object to the given layer.
+     * @param removeObject      Removes a game object from the given layer.
+     */
+    public FloraStreamer(Flora flora, JumpObserverRegistry jumpObservers,
+                         FoliageSystem foliageSystem, RespawnScheduler respawnScheduler,
+                         RegionStore regionStore, int stumpLayer, int leafLayer,
+                         int fruitLayer,
+                         BiConsumer<GameObject, Integer> addObject,
+                         BiConsumer<GameObject, Integer> removeObject) {
+        this.flora = flora;
+        this.jumpObservers = jumpObservers;
+        this.foliageSystem = foliageSystem;
+        this.respawnScheduler = respawnScheduler;
+        this.regionStore = regionStore;
+        this.stumpLayer = stumpLayer;
+        this.leafLayer = leafLayer;
+        this.fruitLayer = fruitLayer;
+        this.addObject = addObject;
+        this.removeObject = removeObject;
+        this.loadedTrees = new HashMap<>();
+        this.loadedFruits = new HashMap<>();
+        this.fruitChunks = new IdentityHashMap<>();
+        this.changedChunks = new HashSet<>();
+    }
+
+    /**
+     * Creates the trees of a chunk and loads its eaten fruits, to be added to the game once the
+     * chunk is loaded.
+     * @param chunkIndex    The index of the chunk.
+     * @param minX          The minimum x-coordinate of the chunk.
+     * @param maxX          The maximum x-coordinate of the chunk.
+     * @return              The action that adds the trees to the game.
+     */
+    @Override
+    public Runnable prepareChunk(int chunkIndex, int minX, int maxX) {
+        ArrayList<Tree> trees = flora.createInRange(minX, maxX);
+        Map<Integer, Float> eatenFruits = regionStore.loadEatenFruits(chunkIndex);
+        return () -> addTrees(chunkIndex, trees, eatenFruits);
+    }
+
+    /**
+     * Stores the eaten fruits of a retired chunk if they changed or are still to respawn, and
+     * removes its trees from the game, from the jump observers and from the respawn scheduler.
+     * @param chunkIndex The index of the chunk.
+     */
+    @Override
+    public void onChunkUnloaded(int chunkIndex) {
+        List<Tree> trees = loadedTrees.remove(chunkIndex);
+        if (trees == null) {
+            return;
+        }
+        List<Fruit> fruits = loadedFruits.remove(chunkIndex);
+        Map<Integer, Float> eatenFruits = eatenFruitsOf(fruits, pendingRespawns());
+        if (changedChunks.remove(chunkIndex) || !eatenFruits.isEmpty()) {
+            regionStore.storeEatenFruits(chunkIndex, eatenFruits);
+        }
+        for (Fruit fruit : fruits) {
+            fruitChunks.remove(fruit);
+        }
+        respawnScheduler.cancel(new HashSet<>(fruits));
+        for (Tree tree : trees) {
+            removeObject.accept(tree.getStump(), stumpLayer);
+            for (GameObject object : tree.getLeavesAndFruitsArray()) {
+                if (object instanceof Leaf) {
+                    removeObject.accept(object, leafLayer);
+                    foliageSystem.unregister((Leaf) object);
+                } else {
+                    removeObject.accept(object, fruitLayer);
+                }
+            }
+        }
+        jumpObservers.unregisterRegion(chunkIndex);
+    }
+
+    /**
+     * Stores the eaten fruits of every loaded chunk in which a fruit was eaten or respawned since
+     * they were last stored, so that they survive the game stopping while the chunk is loaded.
+     */
+    public void storeChangedChunks() {
+        if (changedChunks.isEmpty()) {
+            return;
+        }
+        Map<Fruit, Float> pendingRespawns = pendingRespawns();
+        for (int chunkIndex : changedChunks) {
+            regionStore.storeEatenFruits(chunkIndex,
+                    eatenFruitsOf(loadedFruits.get(chunkIndex), pendingRespawns));
+        }
+        changedChunks.clear();
+    }
+
+    /**
+     * Stores the eaten fruits of every loaded chunk that changed or has fruits still to respawn,
+     * with their remaining respawn times, when the world is closed.
+     */
+    public void storeLoadedChunks() {
+        Map<Fruit, Float> pendingRespawns = pendingRespawns();
+        for (Map.Entry<Integer, List<Fruit>> chunk : loadedFruits.entrySet()) {
+            Map<Integer, Float> eatenFruits = eatenFruitsOf(chunk.getValue(), pendingRespawns);
+            if (changedChunks.contains(chunk.getKey()) || !eatenFruits.isEmpty()) {
+                regionStore.storeEatenFruits(chunk.getKey(), eatenFruits);
+            }
+        }
+        changedChunks.clear();
+    }
+
+    /**
+     * Marks the chunk of a fruit as changed, when the fruit is eaten or respawns. Fruits of
+     * chunks that are not loaded, such as the ones being restored, are ignored.
+     * @param fruit The eaten or respawned fruit.
+     */
+    public void onFruitChanged(Fruit fruit) {
+        Integer chunkIndex = fruitChunks.get(fruit);
+        if (chunkIndex != null) {
+            changedChunks.add(chunkIndex);
+        }
+    }
+
+    /*
+     * Adds the trees of a loaded chunk to the game, registers them for jump events and leaf
+     * animation, and restores the chunk's eaten fruits, without marking the chunk changed.
+     * @param chunkIndex    The index of the chunk.
+     * @param trees         The trees of the chunk.
+     * @param eatenFruits   The index of every eaten fruit in the chunk and its remaining
+     *                      respawn time.
+     */
+    private void addTrees(int chunkIndex, List<Tree> trees, Map<Integer, Float> eatenFruits) {
+        List<Fruit> fruits = new ArrayList<>();
+        for (Tree tree : trees) {
+            GameObject stump = tree.getStump();
+            addObject.accept(stump, stumpLayer);
+            jumpObservers.register((OnJumpObserver) stump, chunkIndex, stump.getCenter().x());
+            for (GameObject object : tree.getLeavesAndFruitsArray()) {
+                if (object instanceof Leaf) {
+                    addObject.accept(object, leafLayer);
+                    foliageSystem.register((Leaf) object);
+                } else {
+                    addObject.accept(object, fruitLayer);
+                    fruits.add((Fruit) object);
+                }
+                jumpObservers.register((OnJumpObserver) object, chunkIndex,
+                        object.getCenter().x());
+            }
+        }
+        for (Map.Entry<Integer, Float> eatenFruit : eatenFruits.entrySet()) {
+            if (eatenFruit.getKey() < fruits.size()) {
+                Fruit fruit = fruits.get(eatenFruit.getKey());
+                fruit.setEaten();
+                respawnScheduler.schedule(fruit, eatenFruit.getValue());
+            }
+        }
+        for (Fruit fruit : fruits) {
+            fruitChunks.put(fruit, chunkIndex);
+        }
+        loadedTrees.put(chunkIndex, trees);
+        loadedFruits.put(chunkIndex, fruits);
+    }
+
+    /*
+     * Collects the pending respawns of every eaten fruit.
+     * @return A map from every eaten fruit to its remaining respawn time.
+     */
+    private Map<Fruit, Float> pendingRespawns() {
+        Map<Fruit, Float> pendingRespawns = new IdentityHashMap<>();
+        respawnScheduler.forEachPending(pendingRespawns::put);
+        return pendingRespawns;
+    }
+
+    /*
+     * Collects the eaten fruits of a chunk by their index in the chunk.
+     * @param fruits            The fruits of the chunk, in the order they were generated.
+     * @param pendingRespawns   The remaining respawn time of every eaten fruit.
+     * @return                  A map from the index of every eaten fruit in the chunk to its
+     *                          remaining respawn time.
+     */
+    private static Map<Integer, Float> eatenFruitsOf(List<Fruit> fruits,
+                                                     Map<Fruit, Float> pendingRespawns) {
+        Map<Integer, Float> eatenFruits = new HashMap<>();
+        for (int i = 0; i < fruits.size(); i++) {
+            Float remaining = pendingRespawns.get(fruits.get(i));
+            if (remaining != null) {
+                eatenFruits.put(i, remaining);
+            }
+        }
+        return eatenFruits;
+    }
+}
@@ -0,0 +1,215 @@
+package pepse.world.trees;
+
+import danogl.util.Vector2;
+import pepse.world.Block;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Animates every registered leaf from one shared clock. The leaves' animation state is kept in
+ * primitive arrays and advanced in a single pass per frame, and only the leaves inside the camera
+ * view are written back to, so the per-frame cost follows the visible leaves instead of every
+ * leaf carrying its own transitions.
+ */
+public class FoliageSystem {
+
+    /**
+     * The time of half a wobble (one way), in seconds. It is a constant (static final).
+     */
+    private static final float TRANSITION_TIME = 1f;
+
+    /**
+     * The minimum angle for leaf animation. It is a constant (static final).
+     */
+    private static final float MIN_ANGLE = -8f;
+
+    /**
+     * The maximum angle for leaf animation. It is a constant (static final).
+     */
+    private static final float MAX_ANGLE = 8f;
+
+    /**
+     * The minimum width of the leaf. It is a constant (static final).
+     */
+    private static final float MIN_WIDTH = 28f;
+
+    /**
+     * The maximum width of the leaf. It is a constant (static final).
+     */
+    private static final float MAX_WIDTH = 32f;
+
+    /**
+     * The number of precomputed leaf dimensions between the minimum and maximum width.
+     * It is a constant (static final).
+     */
+    private static final int WIDTH_STEPS = 16;
+
+    /**
+     * The start angle of the spin a leaf does on a jump. It is a constant (static final).
+     */
+    private static final float SPIN_START_ANGLE = 0f;
+
+    /**
+     * The end angle of the spin a leaf does on a jump. It is a constant (static final).
+     */
+    private static final float SPIN_END_ANGLE = 90f;
+
+    /**
+     * The duration of the spin a leaf does on a jump. It is a constant (static final).
+     */
+    private static final float SPIN_TIME = 2f;
+
+    /**
+     * The spin start time of a leaf that is not spinning. It is a constant (static final).
+     */
+    private static final float NOT_SPINNING = Float.NEGATIVE_INFINITY;
+
+    /**
+     * The initial capacity of the leaf arrays. It is a constant (static final).
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Supplier<Float> viewCenterX;
+    private final float viewHalfWidth;
+    private final Vector2[] widthDimensions;
+    private final Random random;
+    private Leaf[] leaves;
+    private float[] leafXs;
+    private float[] wobbleStarts;
+    private float[] widthStarts;
+    private float[] spinStarts;
+    private int leafCount;
+    private float clock;
+
+    /**
+     * Constructs a foliage system.
+     * @param viewCenterX   Supplies the x-coordinate of the center of the camera view.
+     * @param viewWidth     The width of the camera view.
+     */
+    public FoliageSystem(Supplier<Float> viewCenterX, float viewWidth) {
+        this.viewCenterX = viewCenterX;
+        this.viewHalfWidth = viewWidth / 2 + Block.SIZE;
+        this.widthDimensions = new Vector2[WIDTH_STEPS];
+        for (int i = 0; i < WIDTH_STEPS; i++) {
+            float width = MIN_WIDTH + (MAX_WIDTH - MIN_WIDTH) * i / (WIDTH_STEPS - 1);
+            widthDimensions[i] = new Vector2(width, Block.SIZE);
+        }
+        this.random = new Random();
+        this.leaves = new Leaf[INITIAL_CAPACITY];
+        this.leafXs = new float[INITIAL_CAPACITY];
+        this.wobbleStarts = new float[INITIAL_CAPACITY];
+        this.widthStarts = new float[INITIAL_CAPACITY];
+        this.spinStarts = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Registers a leaf. It starts wobbling and changing its width after a random delay of up
+     * to a second.
+     * @param leaf The leaf to register.
+     */
+    public void register(Leaf leaf) {
+        if (leafCount == leaves.length) {
+            grow();
+        }
+        leaves[leafCount] = leaf;
+        leafXs[leafCount] = leaf.getCenter().x();
+        wobbleStarts[leafCount] = clock + random.nextFloat();
+        widthStarts[leafCount] = clock + random.nextFloat();
+        spinStarts[leafCount] = NOT_SPINNING;
+        leaf.attach(this, leafCount);
+        leafCount++;
+    }
+
+    /**
+     * Unregisters a leaf, so that it is no longer animated.
+     * @param leaf The leaf to unregister.
+     */
+    public void unregister(Leaf leaf) {
+        int slot = leaf.getFoliageSlot();
+        if (slot < 0 || slot >= leafCount || leaves[slot] != leaf) {
+            return;
+        }
+        int last = --leafCount;
+        leaves[slot] = leaves[last];
+        leafXs[slot] = leafXs[last];
+        wobbleStarts[slot] = wobbleStarts[last];
+        widthStarts[slot] = widthStarts[last];
+        spinStarts[slot] = spinStarts[last];
+        leaves[slot].attach(this, slot);
+        leaves[last] = null;
+        leaf.detach();
+    }
+
+    /**
+     * Retrieves the number of registered leaves.
+     * @return The number of registered leaves.
+     */
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Advances the shared clock and writes the animation of every leaf inside the camera view
+     * back to it.
+     * @param deltaTime The time elapsed since the last update.
+     */
+    public void update(float deltaTime) {
+        clock += deltaTime;
+        float centerX = viewCenterX.get();
+        float minX = centerX - viewHalfWidth;
+        float maxX = centerX + viewHalfWidth;
+        for (int i = 0; i < leafCount; i++) {
+            if (leafXs[i] < minX || leafXs[i] > maxX) {
+                continue;
+            }
+            float spinTime = clock - spinStarts[i];
+            if (spinTime < SPIN_TIME) {
+                leaves[i].renderer().setRenderableAngle(SPIN_START_ANGLE +
+                        (SPIN_END_ANGLE - SPIN_START_ANGLE) * spinTime / SPIN_TIME);
+            } else if (clock >= wobbleStarts[i]) {
+                leaves[i].renderer().setRenderableAngle(MIN_ANGLE +
+                        (MAX_ANGLE - MIN_ANGLE) * backAndForth(clock - wobbleStarts[i]));
+            }
+            if (clock >= widthStarts[i]) {
+                int step = Math.round(backAndForth(clock - widthStarts[i]) * (WIDTH_STEPS - 1));
+                leaves[i].setDimensions(widthDimensions[step]);
+            }
+        }
+    }
+
+    /*
+     * Starts the spin of the leaf in the given slot.
+     * @param slot The slot of the leaf.
+     */
+    void spin(int slot) {
+        spinStarts[slot] = clock;
+    }
+
+    /*
+     * Returns the cubic progress of a back and forth transition that has been running for the
+     * given time, going from 0 to 1 and back once every two transition times.
+     * @param elapsed The time the transition has been running.
+     * @return        The progress of the transition, between 0 and 1.
+     */
+    private static float backAndForth(float elapsed) {
+        float t = (elapsed % (2 * TRANSITION_TIME)) / TRANSITION_TIME;
+        if (t > 1) {
+            t = 2 - t;
+        }
+        return t * t * (3 - 2 * t);
+    }
+
+    /*
+     * Doubles the capacity of the leaf arrays.
+     */
+    private void grow() {
+        int capacity = leaves.length * 2;
+        leaves = Arrays.copyOf(leaves, capacity);
+        leafXs = Arrays.copyOf(leafXs, capacity);
+        wobbleStarts = Arrays.copyOf(wobbleStarts, capacity);
+        widthStarts = Arrays.copyOf(widthStarts, capacity);
+        spinStarts = Arrays.copyOf(spinStarts, capacity);
+    }
+}
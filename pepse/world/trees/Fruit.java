@@ -2,10 +2,10 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.components.ScheduledTask;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.jfr.FruitConsumedEvent;
 
 import java.awt.*;
 import java.util.function.Consumer;
@@ -56,6 +56,7 @@ public class Fruit extends GameObject implements OnJumpObserver {
     private static final String FRUIT_TAG = "fruit";
 
     private final float dayTimeCycle;
+    private final RespawnScheduler respawnScheduler;
     private final Consumer<Double> increaseEnergyConsumer;
     private final Renderable[] colorRenderable;
 
@@ -65,12 +66,15 @@ public class Fruit extends GameObject implements OnJumpObserver {
      * @param dimensions             The dimensions of the fruit.
      * @param renderable             The renderable representing the fruit.
      * @param dayTimeCycle           The day time cycle.
+     * @param respawnScheduler       The scheduler that respawns the fruit after it is eaten.
      * @param increaseEnergyConsumer The consumer for increasing energy.
      */
     public Fruit(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                 float dayTimeCycle, Consumer<Double> increaseEnergyConsumer) {
+                 float dayTimeCycle, RespawnScheduler respawnScheduler,
+                 Consumer<Double> increaseEnergyConsumer) {
         super(topLeftCorner, dimensions, renderable);
         this.dayTimeCycle = dayTimeCycle;
+        this.respawnScheduler = respawnScheduler;
         this.increaseEnergyConsumer = increaseEnergyConsumer;
         this.colorRenderable = new Renderable[NUM_OF_COLORS];
         this.colorRenderable[YELLOW_INDEX] = new OvalRenderable(Color.YELLOW);
@@ -90,12 +94,32 @@ public class Fruit extends GameObject implements OnJumpObserver {
             if (this.renderer().getOpaqueness() == FULL_TRANSPARENCY) {
                 this.increaseEnergyConsumer.accept((double) FRUIT_ENERGY);
                 this.renderer().setOpaqueness(FULL_OPAQUENESS);
-                new ScheduledTask(this, this.dayTimeCycle, false,
-                        () -> this.renderer().setOpaqueness(FULL_TRANSPARENCY));
+                this.respawnScheduler.schedule(this, this.dayTimeCycle);
+                FruitConsumedEvent event = new FruitConsumedEvent();
+                if (event.shouldCommit()) {
+                    event.x = getCenter().x();
+                    event.y = getCenter().y();
+                    event.energy = FRUIT_ENERGY;
+                    event.commit();
+                }
             }
         }
     }
 
+    /*
+     * Makes a fruit eaten, as restored from a stored chunk, without giving any energy.
+     */
+    void setEaten() {
+        this.renderer().setOpaqueness(FULL_OPAQUENESS);
+    }
+
+    /*
+     * Makes an eaten fruit visible and edible again.
+     */
+    void respawn() {
+        this.renderer().setOpaqueness(FULL_TRANSPARENCY);
+    }
+
     /**
      * Handles the jump event for the fruit.
      */
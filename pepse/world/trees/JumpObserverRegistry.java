@@ -0,0 +1,190 @@
+package pepse.world.trees;
+
+import pepse.util.jfr.JumpDispatchEvent;
+import pepse.world.ChunkManager;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Holds jump observers by the horizontal world region (terrain chunk) they are in, and on a jump
+ * notifies only the observers within a radius of a moving center. Observers are held weakly, so
+ * observers of discarded trees can be collected even if their region is never unregistered.
+ * Regions are kept in a ring indexed by the region index modulo its size, which grows whenever
+ * two registered regions would share a slot, so that a jump looks regions up without boxing
+ * their indices.
+ */
+public class JumpObserverRegistry implements OnJumpObserver {
+
+    /**
+     * The initial number of slots of the ring of regions. It is a constant (static final).
+     */
+    private static final int INITIAL_RING_SIZE = 16;
+
+    private final Supplier<Float> centerX;
+    private final float radius;
+    private Region[] regions;
+
+    /**
+     * Constructs a jump observer registry.
+     * @param centerX   Supplies the x-coordinate jumps are dispatched around.
+     * @param radius    The horizontal distance from the center within which observers are notified.
+     */
+    public JumpObserverRegistry(Supplier<Float> centerX, float radius) {
+        this.centerX = centerX;
+        this.radius = radius;
+        this.regions = new Region[INITIAL_RING_SIZE];
+    }
+
+    /**
+     * Registers an observer at the given x-coordinate, under the given region. An observer may
+     * stick out of its region (like the canopy of a tree at a chunk's edge) by less than a
+     * region's width.
+     * @param observer      The observer to register.
+     * @param regionIndex   The index of the region (terrain chunk) the observer belongs to.
+     * @param x             The x-coordinate of the observer.
+     */
+    public void register(OnJumpObserver observer, int regionIndex, float x) {
+        Region region = regionAt(regionIndex);
+        if (region == null) {
+            region = new Region(regionIndex);
+            insert(region);
+        }
+        region.observers.add(new RegisteredObserver(observer, x));
+    }
+
+    /**
+     * Unregisters every observer in the given region.
+     * @param regionIndex The index of the region (terrain chunk).
+     */
+    public void unregisterRegion(int regionIndex) {
+        if (regionAt(regionIndex) != null) {
+            regions[Math.floorMod(regionIndex, regions.length)] = null;
+        }
+    }
+
+    /**
+     * Notifies the observers within the radius of the center of a jump event, dropping the ones
+     * that have been collected. The dispatch is recorded as a Flight Recorder event, with the
+     * number of observers notified.
+     */
+    @Override
+    public void onJump() {
+        JumpDispatchEvent event = new JumpDispatchEvent();
+        event.begin();
+        int notified = 0;
+        float center = centerX.get();
+        // One more region on each side, for observers that stick out of their region.
+        int firstRegion = ChunkManager.chunkIndexAt(center - radius) - 1;
+        int lastRegion = ChunkManager.chunkIndexAt(center + radius) + 1;
+        for (int i = firstRegion; i <= lastRegion; i++) {
+            Region region = regionAt(i);
+            if (region != null) {
+                notified += notifyRegion(region.observers, center);
+            }
+        }
+        if (event.shouldCommit()) {
+            event.observerCount = notified;
+            event.commit();
+        }
+    }
+
+    /*
+     * Notifies the observers of a single region that are within the radius of the center.
+     * @param region The observers of the region.
+     * @param center The x-coordinate jumps are dispatched around.
+     * @return       The number of observers notified.
+     */
+    private int notifyRegion(List<RegisteredObserver> region, float center) {
+        int notified = 0;
+        Iterator<RegisteredObserver> iterator = region.iterator();
+        while (iterator.hasNext()) {
+            RegisteredObserver registered = iterator.next();
+            OnJumpObserver observer = registered.observer.get();
+            if (observer == null) {
+                iterator.remove();
+            } else if (Math.abs(registered.x - center) <= radius) {
+                observer.onJump();
+                notified++;
+            }
+        }
+        return notified;
+    }
+
+    /*
+     * Retrieves a registered region.
+     * @param regionIndex The index of the region.
+     * @return            The region, or null if it is not registered.
+     */
+    private Region regionAt(int regionIndex) {
+        Region region = regions[Math.floorMod(regionIndex, regions.length)];
+        return region != null && region.index == regionIndex ? region : null;
+    }
+
+    /*
+     * Inserts a region into the ring, doubling the ring until its slot is free.
+     * @param region The region, which must not be registered yet.
+     */
+    private void insert(Region region) {
+        while (regions[Math.floorMod(region.index, regions.length)] != null) {
+            grow();
+        }
+        regions[Math.floorMod(region.index, regions.length)] = region;
+    }
+
+    /*
+     * Doubles the ring, until every registered region has a slot of its own.
+     */
+    private void grow() {
+        Region[] oldRegions = regions;
+        int size = oldRegions.length * 2;
+        Region[] newRegions;
+        boolean collides;
+        do {
+            newRegions = new Region[size];
+            collides = false;
+            for (Region region : oldRegions) {
+                if (region == null) {
+                    continue;
+                }
+                int slot = Math.floorMod(region.index, size);
+                if (newRegions[slot] != null) {
+                    collides = true;
+                    break;
+                }
+                newRegions[slot] = region;
+            }
+            size *= 2;
+        } while (collides);
+        regions = newRegions;
+    }
+
+    /*
+     * The observers registered under a single region.
+     */
+    private static class Region {
+        private final int index;
+        private final List<RegisteredObserver> observers;
+
+        private Region(int index) {
+            this.index = index;
+            this.observers = new ArrayList<>();
+        }
+    }
+
+    /*
+     * A weakly held observer and its x-coordinate.
+     */
+    private static class RegisteredObserver {
+        private final WeakReference<OnJumpObserver> observer;
+        private final float x;
+
+        private RegisteredObserver(OnJumpObserver observer, float x) {
+            this.observer = new WeakReference<>(observer);
+            this.x = x;
+        }
+    }
+}
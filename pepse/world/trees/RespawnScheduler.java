@@ -0,0 +1,162 @@
+package pepse.world.trees;
+
+import pepse.world.WorldClock;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Holds the pending respawns of every eaten fruit in a single min-heap keyed by game time, and
+ * only wakes the fruits whose respawn is due, instead of every eaten fruit carrying its own
+ * scheduled task.
+ */
+public class RespawnScheduler {
+
+    /**
+     * The initial capacity of the heap arrays. It is a constant (static final).
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final WorldClock clock;
+    private final Consumer<Fruit> onChange;
+    private double[] deadlines;
+    private Fruit[] fruits;
+    private int pendingCount;
+
+    /**
+     * Constructs an empty respawn scheduler.
+     * @param clock The world clock the respawns are timed by.
+     */
+    public RespawnScheduler(WorldClock clock) {
+        this(clock, fruit -> { });
+    }
+
+    /**
+     * Constructs an empty respawn scheduler that reports every fruit scheduled or respawned.
+     * @param clock     The world clock the respawns are timed by.
+     * @param onChange  Accepts every fruit whose respawn is scheduled, and every fruit that
+     *                  respawns.
+     */
+    public RespawnScheduler(WorldClock clock, Consumer<Fruit> onChange) {
+        this.clock = clock;
+        this.onChange = onChange;
+        this.deadlines = new double[INITIAL_CAPACITY];
+        this.fruits = new Fruit[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Schedules a fruit to respawn after the given delay.
+     * @param fruit The fruit to respawn.
+     * @param delay The game time until the fruit respawns, in seconds.
+     */
+    public void schedule(Fruit fruit, float delay) {
+        if (pendingCount == deadlines.length) {
+            deadlines = Arrays.copyOf(deadlines, pendingCount * 2);
+            fruits = Arrays.copyOf(fruits, pendingCount * 2);
+        }
+        int i = pendingCount++;
+        double deadline = clock.getTime() + delay;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (deadlines[parent] <= deadline) {
+                break;
+            }
+            deadlines[i] = deadlines[parent];
+            fruits[i] = fruits[parent];
+            i = parent;
+        }
+        deadlines[i] = deadline;
+        fruits[i] = fruit;
+        onChange.accept(fruit);
+    }
+
+    /**
+     * Respawns every fruit whose respawn is due by the world clock.
+     */
+    public void update() {
+        double time = clock.getTime();
+        while (pendingCount > 0 && deadlines[0] <= time) {
+            Fruit fruit = fruits[0];
+            removeFirst();
+            fruit.respawn();
+            onChange.accept(fruit);
+        }
+    }
+
+    /**
+     * Passes every pending respawn to the given action.
+     * @param action Accepts a fruit and the game time until it respawns, in seconds.
+     */
+    public void forEachPending(BiConsumer<Fruit, Float> action) {
+        for (int i = 0; i < pendingCount; i++) {
+            action.accept(fruits[i], (float) (deadlines[i] - clock.getTime()));
+        }
+    }
+
+    /**
+     * Cancels the pending respawns of the given fruits, which stay eaten.
+     * @param cancelled The fruits whose respawns are cancelled.
+     */
+    public void cancel(Set<Fruit> cancelled) {
+        int kept = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            if (!cancelled.contains(fruits[i])) {
+                deadlines[kept] = deadlines[i];
+                fruits[kept] = fruits[i];
+                kept++;
+            }
+        }
+        Arrays.fill(fruits, kept, pendingCount, null);
+        pendingCount = kept;
+        for (int i = pendingCount / 2 - 1; i >= 0; i--) {
+            siftDown(i, deadlines[i], fruits[i]);
+        }
+    }
+
+    /**
+     * Retrieves the number of pending respawns.
+     * @return The number of pending respawns.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /*
+     * Removes the earliest pending respawn from the heap.
+     */
+    private void removeFirst() {
+        int last = --pendingCount;
+        double deadline = deadlines[last];
+        Fruit fruit = fruits[last];
+        fruits[last] = null;
+        if (pendingCount > 0) {
+            siftDown(0, deadline, fruit);
+        }
+    }
+
+    /*
+     * Places a pending respawn at a hole of the heap, moving it down past every earlier child.
+     * @param i         The index of the hole.
+     * @param deadline  The game time the fruit respawns at.
+     * @param fruit     The fruit to respawn.
+     */
+    private void siftDown(int i, double deadline, Fruit fruit) {
+        int child = 2 * i + 1;
+        while (child < pendingCount) {
+            if (child + 1 < pendingCount && deadlines[child + 1] < deadlines[child]) {
+                child++;
+            }
+            if (deadline <= deadlines[child]) {
+                break;
+            }
+            deadlines[i] = deadlines[child];
+            fruits[i] = fruits[child];
+            i = child;
+            child = 2 * i + 1;
+        }
+        deadlines[i] = deadline;
+        fruits[i] = fruit;
+    }
+}
@@ -3,11 +3,13 @@ package pepse.world.trees;
 import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
 import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
+import pepse.util.ColorPalette;
 import pepse.world.Block;
 
 import java.awt.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a stump object in the game world.
@@ -24,25 +26,36 @@ public class Stump extends GameObject implements OnJumpObserver {
      */
     private static final String STUMP_TAG = "stump";
 
+    /**
+     * The ring of jittered stump renderables a stump cycles through on every jump.
+     * It is a constant (static final).
+     */
+    private static final Renderable[] STUMP_RENDERABLES = ColorPalette.renderablesOf(STUMP_COLOR);
+
+    private int renderableIndex;
+
     /**
      * Constructs a stump object with the specified parameters.
      * @param bottomPosition The bottom position of the stump.
      * @param stumpHeight    The height of the stump.
+     * @param random         The generator the stump's first ring color is drawn from.
      */
-    public Stump(Vector2 bottomPosition, int stumpHeight) {
+    public Stump(Vector2 bottomPosition, int stumpHeight, RandomGenerator random) {
         super(bottomPosition.add(Vector2.UP.mult(stumpHeight)),
                 new Vector2(Block.SIZE, stumpHeight), new RectangleRenderable(STUMP_COLOR));
         this.setTag(STUMP_TAG);
         this.physics().preventIntersectionsFromDirection(Vector2.ZERO);
         this.physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+        this.renderableIndex = random.nextInt(STUMP_RENDERABLES.length);
     }
 
     /**
-     * Handles the jump event.
+     * Handles the jump event by moving to the next color of the stump renderables ring.
      */
     @Override
     public void onJump() {
-        this.renderer().setRenderable(new RectangleRenderable(ColorSupplier.approximateColor(STUMP_COLOR)));
+        this.renderableIndex = (this.renderableIndex + 1) % STUMP_RENDERABLES.length;
+        this.renderer().setRenderable(STUMP_RENDERABLES[this.renderableIndex]);
     }
 }
 
@@ -7,8 +7,8 @@ import pepse.world.Block;
 
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Random;
 import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a tree in the game world.
@@ -53,13 +53,17 @@ public class Tree {
      * Constructs a tree object with the specified parameters.
      * @param dayTimeCycle   The duration of a day-night cycle.
      * @param stumpBottomPosition The bottom position of the stump.
+     * @param random         The generator the tree's shape and colors are drawn from.
+     * @param respawnScheduler The scheduler that respawns the tree's eaten fruits.
      * @param increaseEnergy The function to increase energy.
      */
-    public Tree(float dayTimeCycle, Vector2 stumpBottomPosition, Consumer<Double> increaseEnergy) {
-        this.stump = new Stump(stumpBottomPosition, new Random().nextInt(STUMP_MIN_HEIGHT,
-                (int) (stumpBottomPosition.y() * HALF_FACTOR)));
+    public Tree(float dayTimeCycle, Vector2 stumpBottomPosition, RandomGenerator random,
+                RespawnScheduler respawnScheduler, Consumer<Double> increaseEnergy) {
+        this.stump = new Stump(stumpBottomPosition, random.nextInt(STUMP_MIN_HEIGHT,
+                (int) (stumpBottomPosition.y() * HALF_FACTOR)), random);
         Vector2 leavesCenter = new Vector2(this.stump.getCenter().x(), stump.getTopLeftCorner().y());
-        createLeavesAndFruits(dayTimeCycle, leavesCenter, increaseEnergy);
+        createLeavesAndFruits(dayTimeCycle, leavesCenter, random, respawnScheduler,
+                increaseEnergy);
     }
 
     /**
@@ -82,11 +86,13 @@ public class Tree {
      * Creates leaves and fruits for the tree.
      * @param dayTimeCycle   The duration of a day-night cycle.
      * @param leavesCenter   The center position for leaves.
+     * @param random         The generator the leaves and fruits are drawn from.
+     * @param respawnScheduler The scheduler that respawns the eaten fruits.
      * @param increaseEnergy The function to increase energy.
      */
-    private void createLeavesAndFruits(float dayTimeCycle,
-                                       Vector2 leavesCenter, Consumer<Double> increaseEnergy) {
-        Random random = new Random();
+    private void createLeavesAndFruits(float dayTimeCycle, Vector2 leavesCenter,
+                                       RandomGenerator random, RespawnScheduler respawnScheduler,
+                                       Consumer<Double> increaseEnergy) {
         this.leavesAndFruitsArray = new ArrayList<>();
         float minXPos = leavesCenter.x() - NUM_LEAVES * Block.SIZE;
         float maxXPos = leavesCenter.x() + NUM_LEAVES * Block.SIZE;
@@ -96,12 +102,13 @@ public class Tree {
             for (float j = minYPos; j < maxYPos; j += Block.SIZE) {
                 Vector2 curLocation = new Vector2(i, j);
                 if (random.nextFloat(PROB_BOUND) <= NUM_OF_LEAVES_THRESHOLD) {
-                    this.leavesAndFruitsArray.add(new Leaf(curLocation));
+                    this.leavesAndFruitsArray.add(new Leaf(curLocation, random));
                 }
                 if (random.nextFloat(PROB_BOUND) <= NUM_OF_FRUITS_THRESHOLD) {
                     this.leavesAndFruitsArray.add(new Fruit(curLocation,
                             Vector2.ONES.mult(Block.SIZE),
-                            new OvalRenderable(Color.RED), dayTimeCycle, increaseEnergy));
+                            new OvalRenderable(Color.RED), dayTimeCycle, respawnScheduler,
+                            increaseEnergy));
                 }
             }
         }